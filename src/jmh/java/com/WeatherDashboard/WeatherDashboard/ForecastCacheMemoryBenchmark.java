@@ -0,0 +1,93 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.cache.ForecastCache;
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held by a ForecastCache of 10k 4-day forecasts, with conditions shared through
+ * ConditionRegistry (interned=true) or copied per hour with their own strings the way
+ * the parser used to build them (interned=false). The heap retained is measured once
+ * and logged when each trial ends; the benchmark itself times parsing one forecast. Run with:
+ * ./mvnw -P jmh verify -Djmh.args="ForecastCacheMemoryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ForecastCacheMemoryBenchmark {
+
+    private static final int FORECASTS = 10_000;
+
+    @Param({"true", "false"})
+    public boolean interned;
+
+    private final ForecastParser forecastParser = new ForecastParser(ConditionRegistry.empty());
+    private byte[] forecastBody;
+    private ForecastCache cache;
+    private long retained;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = ForecastCacheMemoryBenchmark.class.getResourceAsStream("/fixtures/weatherapi-forecast-4d.json")) {
+            forecastBody = in.readAllBytes();
+        }
+        long before = usedHeap();
+        cache = new ForecastCache(FORECASTS);
+        for (int i = 0; i < FORECASTS; i++) {
+            cache.put("city-" + i, 4, parse());
+        }
+        retained = usedHeap() - before;
+    }
+
+    // Fixed for the trial, so logged once after its results rather than counted per iteration
+    @TearDown(Level.Trial)
+    public void logRetained() {
+        System.out.printf("interned=%s: %,d forecasts retain %,d KB, %,d bytes each%n",
+                interned, FORECASTS, retained / 1024, retained / FORECASTS);
+    }
+
+    @Benchmark
+    public ForecastDTO parseForecast() throws IOException {
+        return parse();
+    }
+
+    private ForecastDTO parse() throws IOException {
+        ForecastDTO forecast = forecastParser.parse(new ByteArrayInputStream(forecastBody));
+        return interned ? forecast : withCopiedConditions(forecast);
+    }
+
+    private static ForecastDTO withCopiedConditions(ForecastDTO forecast) {
+        return new ForecastDTO(forecast.city(), forecast.region(), forecast.country(), forecast.lat(), forecast.lon(),
+                forecast.forecast().stream().map(day -> new ForecastDTO.ForecastDay(day.date(),
+                        new ForecastDTO.DayForecast(day.day().maxTempF(), day.day().maxTempC(), day.day().minTempF(),
+                                day.day().minTempC(), day.day().avgTempF(), day.day().avgTempC(),
+                                day.day().maxWindMph(), day.day().totalPrecipIn(), day.day().totalPrecipMm(),
+                                day.day().avgHumidity(), copy(day.day().condition()),
+                                day.day().chanceOfRain(), day.day().chanceOfSnow()),
+                        day.hours().stream().map(hour -> new ForecastDTO.HourForecast(hour.time(), hour.tempF(),
+                                hour.tempC(), copy(hour.condition()), hour.windMph(), hour.humidity(),
+                                hour.chanceOfRain(), hour.chanceOfSnow())).toList())).toList());
+    }
+
+    private static ForecastDTO.Condition copy(ForecastDTO.Condition condition) {
+        return new ForecastDTO.Condition(new String(condition.text()), new String(condition.icon()), condition.code());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import com.WeatherDashboard.WeatherDashboard.repository.SavedCityRepositoryImpl;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of saving a city as the saved_cities table grows, on the embedded database with
+ * the real migrations. insertIfAbsent is the save path; legacyLookup is the
+ * upper(city_name) = upper(?) query findByCityNameIgnoreCase used to run before every
+ * insert, which no index serves. Run with:
+ * ./mvnw -P jmh verify -Djmh.args="SavedCityInsertBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SavedCityInsertBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int existingRows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SavedCityRepositoryImpl repository;
+    private long maxPreloadedId;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new SavedCityRepositoryImpl(jdbcTemplate);
+
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= existingRows; i++) {
+            batch.add(new Object[] {i, "Preloaded City " + i, 40.0, -74.0});
+            if (batch.size() == 10_000 || i == existingRows) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO saved_cities (id, city_name, latitude, longitude) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        maxPreloadedId = existingRows;
+        jdbcTemplate.execute("ALTER SEQUENCE " + SavedCity.ID_SEQUENCE + " RESTART WITH " + (existingRows + 1));
+    }
+
+    // Keep the table at existingRows so every iteration measures the same size
+    @TearDown(Level.Iteration)
+    public void removeInserted() {
+        jdbcTemplate.update("DELETE FROM saved_cities WHERE id > ?", maxPreloadedId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Optional<SavedCity> insertIfAbsent() {
+        return repository.insertIfAbsent("Benchmark City " + (counter++), 40.0, -74.0);
+    }
+
+    @Benchmark
+    public Optional<SavedCity> insertIfAbsentDuplicate() {
+        return repository.insertIfAbsent("PRELOADED CITY " + nextPreloaded(), 40.0, -74.0);
+    }
+
+    @Benchmark
+    public List<Long> legacyLookup() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM saved_cities WHERE upper(city_name) = upper(?)", Long.class,
+                "preloaded city " + nextPreloaded());
+    }
+
+    // A different name every call; the embedded database caches results of repeated identical queries
+    private long nextPreloaded() {
+        return 1 + (counter++ * 7919) % existingRows;
+    }
+}
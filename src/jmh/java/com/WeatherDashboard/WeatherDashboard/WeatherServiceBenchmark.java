@@ -0,0 +1,97 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.geo.CityIndex;
+import com.WeatherDashboard.WeatherDashboard.geo.NearbyCity;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import com.WeatherDashboard.WeatherDashboard.parser.TreeModelForecastMapping;
+import com.WeatherDashboard.WeatherDashboard.provider.WeatherApiProvider;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of WeatherService, fed with recorded upstream responses from
+ * src/test/resources/fixtures. Run with: ./mvnw -P jmh verify
+ * (the profile adds -prof gc, so results include gc.alloc.rate.norm in bytes/op).
+ * forecastTreeModel96Hours is the Map-tree mapping the streaming parser replaced, so
+ * comparing it with forecastParse96Hours gives the bytes saved per forecast request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherServiceBenchmark {
+
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ForecastParser forecastParser = new ForecastParser(ConditionRegistry.empty());
+
+    private Map<String, Object> currentResponse;
+    private byte[] forecastBody;
+    private List<Map<String, Object>> nearbyCandidates;
+    private CityIndex cityIndex;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        currentResponse = objectMapper.readValue(fixture("weatherapi-current.json"), JSON_MAP);
+        forecastBody = fixture("weatherapi-forecast-4d.json");
+        Map<String, Object> find = objectMapper.readValue(fixture("openweathermap-find.json"), JSON_MAP);
+        nearbyCandidates = (List<Map<String, Object>>) find.get("list");
+        try (InputStream in = WeatherServiceBenchmark.class.getResourceAsStream("/gazetteer/cities.csv")) {
+            cityIndex = CityIndex.load(in);
+        }
+    }
+
+    @Benchmark
+    public WeatherDTO currentWeatherMapping() {
+        return WeatherApiProvider.toWeatherDTO(currentResponse);
+    }
+
+    @Benchmark
+    public ForecastDTO forecastParse96Hours() throws IOException {
+        return forecastParser.parse(new ByteArrayInputStream(forecastBody));
+    }
+
+    @Benchmark
+    public ForecastDTO forecastTreeModel96Hours() throws IOException {
+        return TreeModelForecastMapping.map(objectMapper.readValue(forecastBody, JSON_MAP));
+    }
+
+    @Benchmark
+    public double haversineDistance() {
+        return WeatherService.calculateDistance(39.9526, -75.1652, 39.9259, -75.1196);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> nearbyCandidateRanking() {
+        return WeatherService.rankByDistance(nearbyCandidates, 39.9526, -75.1652);
+    }
+
+    @Benchmark
+    public List<NearbyCity> nearbyIndexQuery() {
+        return cityIndex.nearest(39.9526, -75.1652, 15.0, 6, CityIndex.Filter.ANY);
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = WeatherServiceBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture: " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writing a 4-day forecast (96 hours) in each WireFormat through the converters the
+ * endpoints use, plain and gzipped like Tomcat's server.compression does. The size of one
+ * response, plain and gzipped, is measured once and logged when each trial ends. Run with:
+ * ./mvnw -P jmh verify -Djmh.args="WireFormatBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "COLUMNAR_JSON", "CBOR", "SMILE"})
+    public WireFormat format;
+
+    private ForecastDTO forecast;
+    private HttpMessageConverter<Object> converter;
+    private int responseBytes;
+    private int gzippedBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = WireFormatBenchmark.class.getResourceAsStream("/fixtures/weatherapi-forecast-4d.json")) {
+            forecast = new ForecastParser(ConditionRegistry.empty()).parse(in);
+        }
+        WireFormatConfig config = new WireFormatConfig();
+        converter = switch (format) {
+            case JSON, COLUMNAR_JSON -> config.mappingJackson2HttpMessageConverter(new ObjectMapper());
+            case CBOR -> config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+            case SMILE -> config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+        };
+        byte[] body = write();
+        responseBytes = body.length;
+        gzippedBytes = gzip(body).length;
+    }
+
+    // Fixed for the trial, so logged once after its results rather than counted per iteration
+    @TearDown(Level.Trial)
+    public void logSizes() {
+        System.out.printf("%s: %,d bytes per response, %,d gzipped%n", format, responseBytes, gzippedBytes);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return write();
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip(write());
+    }
+
+    private byte[] write() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(forecast, format.mediaType(), message);
+        return message.getBodyAsBytes();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
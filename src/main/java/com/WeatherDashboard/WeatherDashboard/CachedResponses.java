@@ -0,0 +1,80 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.TtlCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Builds 200 responses for cached weather data with an ETag and Cache-Control headers.
+ *
+ * The ETag is a hash of the JSON body. It is computed once per fetched value and
+ * remembered, so a request whose If-None-Match matches gets a 304 from Spring
+ * without the body being serialized. max-age is the time the value has left in our
+ * cache, so browsers and the CDN never hold it longer than the server would.
+ * Each {@link WireFormat} gets its own ETag, and responses vary by Accept. ETags are
+ * weak because Tomcat only compresses responses without a strong one (a gzipped body
+ * is not byte-identical); If-None-Match compares weakly, so 304s are unaffected.
+ */
+@Component
+public class CachedResponses {
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration staleWhileRevalidate;
+    // Keyed by resource and fetch time; the ETag itself only changes when the payload does
+    private final TtlCache<String, String> etags;
+
+    @Autowired
+    public CachedResponses(ObjectMapper objectMapper,
+                           @Value("${weather.cache.stale-while-revalidate-seconds:60}") long staleWhileRevalidateSeconds,
+                           @Value("${weather.cache.etag.max-size:4000}") int etagMaxSize) {
+        this(objectMapper, Duration.ofSeconds(staleWhileRevalidateSeconds), etagMaxSize, Clock.systemUTC());
+    }
+
+    CachedResponses(ObjectMapper objectMapper, Duration staleWhileRevalidate, int etagMaxSize, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.etags = new TtlCache<>(etagMaxSize, Duration.ofHours(2), clock);
+    }
+
+    /**
+     * @param resource identifies what was requested (e.g. "weather|london"); values for
+     *                 different resources never share an ETag entry
+     * @param accept the request's Accept header, may be null
+     */
+    public <T> ResponseEntity<T> ok(String resource, CachedValue<T> cached, String accept) {
+        String etag = etags.get(resource + "|" + cached.fetchedAt().toEpochMilli(), key -> etagOf(cached.value()));
+        // A stale value is already past its freshness; clients may use it only while revalidating
+        Duration maxAge = cached.stale() ? Duration.ZERO : cached.remainingTtl(clock.instant());
+        return ResponseEntity.ok()
+                .eTag("W/" + WireFormat.etag(accept, etag))
+                .varyBy(HttpHeaders.ACCEPT)
+                .lastModified(cached.fetchedAt())
+                .cacheControl(CacheControl.maxAge(maxAge).staleWhileRevalidate(staleWhileRevalidate).cachePublic())
+                .body(cached.value());
+    }
+
+    String etagOf(Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            // 128 bits is plenty to tell versions of one resource apart
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to compute ETag", e);
+        }
+    }
+}
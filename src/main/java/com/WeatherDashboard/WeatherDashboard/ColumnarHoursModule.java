@@ -0,0 +1,109 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each forecast day's "hour" as one array per field, e.g.
+ * {"time": [...], "temp_f": [...], ..., "condition": [0, 0, 1, ...], "conditions": [{...}, {...}]},
+ * so field names appear once per day instead of once per hour. "condition" holds
+ * indexes into that day's "conditions", which lists each distinct condition once.
+ * With conditions=codes, "condition" holds ids and "conditions" is left out.
+ * Everything else is written as usual.
+ */
+class ColumnarHoursModule extends SimpleModule {
+
+    ColumnarHoursModule() {
+        super("ColumnarHours");
+        addSerializer(ForecastDTO.ForecastDay.class, new ForecastDaySerializer());
+    }
+
+    private static final class ForecastDaySerializer extends StdSerializer<ForecastDTO.ForecastDay> {
+
+        ForecastDaySerializer() {
+            super(ForecastDTO.ForecastDay.class);
+        }
+
+        @Override
+        public void serialize(ForecastDTO.ForecastDay day, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("date", day.date());
+            provider.defaultSerializeField("day", day.day(), gen);
+            gen.writeFieldName("hour");
+            if (day.hours() == null) {
+                gen.writeNull();
+            } else {
+                writeHours(day.hours(), gen, provider);
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeHours(List<ForecastDTO.HourForecast> hours, JsonGenerator gen,
+                                       SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("time");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeString(hour.time());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("temp_f");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.tempF());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("temp_c");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.tempC());
+            }
+            gen.writeEndArray();
+            boolean codesOnly = Boolean.TRUE.equals(provider.getAttribute(ConditionRegistry.CODES_ONLY));
+            Map<ForecastDTO.Condition, Integer> conditions = new LinkedHashMap<>();
+            gen.writeArrayFieldStart("condition");
+            for (ForecastDTO.HourForecast hour : hours) {
+                if (hour.condition() == null) {
+                    gen.writeNull();
+                } else if (codesOnly) {
+                    gen.writeString(ConditionRegistry.idOf(hour.condition()));
+                } else {
+                    gen.writeNumber(conditions.computeIfAbsent(hour.condition(), c -> conditions.size()));
+                }
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("wind_mph");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.windMph());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("humidity");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.humidity());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("chance_of_rain");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.chanceOfRain());
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("chance_of_snow");
+            for (ForecastDTO.HourForecast hour : hours) {
+                gen.writeNumber(hour.chanceOfSnow());
+            }
+            gen.writeEndArray();
+            if (!codesOnly) {
+                provider.defaultSerializeField("conditions", new ArrayList<>(conditions.keySet()), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
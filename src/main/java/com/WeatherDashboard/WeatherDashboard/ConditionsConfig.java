@@ -0,0 +1,34 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+public class ConditionsConfig {
+    private static final Logger log = LoggerFactory.getLogger(ConditionsConfig.class);
+
+    @Value("${weather.conditions.file:classpath:conditions/weatherapi-conditions.csv}")
+    private Resource conditions;
+
+    @Bean
+    public ConditionRegistry conditionRegistry() throws IOException {
+        if (!conditions.exists()) {
+            // Conditions are still learned from responses, but ids a node has not seen yet are missing from its dictionary
+            log.warn("Conditions file {} not found; /weather/conditions will only list conditions seen so far", conditions);
+            return ConditionRegistry.empty();
+        }
+        try (InputStream in = conditions.getInputStream()) {
+            ConditionRegistry registry = ConditionRegistry.load(in);
+            log.info("Loaded {} conditions from {}", registry.size(), conditions);
+            return registry;
+        }
+    }
+}
@@ -1,15 +1,42 @@
 package com.WeatherDashboard.WeatherDashboard;
 
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.dto.BatchWeatherResult;
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
 import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
 import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.HistoryBucketDTO;
+import com.WeatherDashboard.WeatherDashboard.service.WeatherBatchService;
+import com.WeatherDashboard.WeatherDashboard.service.WeatherHistoryService;
+import com.WeatherDashboard.WeatherDashboard.service.WeatherUpdateHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,18 +44,44 @@ import java.util.Map;
 @RestController
 @RequestMapping("/weather")
 public class WeatherController {
+    private static final Logger log = LoggerFactory.getLogger(WeatherController.class);
+
     private final WeatherService weatherService;
+    private final WeatherHistoryService weatherHistoryService;
+    private final WeatherBatchService weatherBatchService;
+    private final WeatherUpdateHub weatherUpdateHub;
+    private final ObjectMapper objectMapper;
+    private final CachedResponses cachedResponses;
+    private final ConditionRegistry conditionRegistry;
+
+    // Clients reconnect (EventSource does so automatically) after this long
+    @Value("${weather.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs = 1800000;
 
     @Autowired
-    public WeatherController(WeatherService weatherService){
+    public WeatherController(WeatherService weatherService,
+                             WeatherHistoryService weatherHistoryService,
+                             WeatherBatchService weatherBatchService,
+                             WeatherUpdateHub weatherUpdateHub,
+                             ObjectMapper objectMapper,
+                             CachedResponses cachedResponses,
+                             ConditionRegistry conditionRegistry){
         this.weatherService = weatherService;
+        this.weatherHistoryService = weatherHistoryService;
+        this.weatherBatchService = weatherBatchService;
+        this.weatherUpdateHub = weatherUpdateHub;
+        this.objectMapper = objectMapper;
+        this.cachedResponses = cachedResponses;
+        this.conditionRegistry = conditionRegistry;
     }
 
     @GetMapping
-    public ResponseEntity<?> getWeather(@RequestParam String city) {
+    public ResponseEntity<?> getWeather(
+            @RequestParam String city,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            WeatherDTO weather = weatherService.getWeather(city);
-            return ResponseEntity.ok(weather);
+            CachedValue<WeatherDTO> weather = weatherService.lookupWeather(city);
+            return cachedResponses.ok("weather|" + LocationKey.normalize(city), weather, accept);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", city + " not found: " + e.getMessage());
@@ -39,11 +92,12 @@ public class WeatherController {
     @GetMapping("/coords")
     public ResponseEntity<?> getWeatherByCoords(
             @RequestParam double lat, 
-            @RequestParam double lon) {
+            @RequestParam double lon,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
             String location = lat + "," + lon;
-            WeatherDTO weather = weatherService.getWeather(location);
-            return ResponseEntity.ok(weather);
+            CachedValue<WeatherDTO> weather = weatherService.lookupWeather(location);
+            return cachedResponses.ok("weather|" + LocationKey.normalize(location), weather, accept);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch weather for coordinates: " + e.getMessage());
@@ -57,13 +111,10 @@ public class WeatherController {
             @RequestParam double lon,
             @RequestParam(required = false) String region) {
         try {
-            System.out.println("Received nearby cities request - lat: " + lat + ", lon: " + lon + ", region: " + region);
             Map<String, Object> cities = weatherService.getNearbyCities(lat, lon, region);
-            System.out.println("Returning " + ((List<?>) cities.get("list")).size() + " cities");
             return ResponseEntity.ok(cities);
         } catch (Exception e) {
-            System.err.println("Error fetching nearby cities: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error fetching nearby cities for lat={}, lon={}: {}", lat, lon, e.getMessage());
             Map<String, String> error = new HashMap<>();
             error.put("error", "Could not fetch nearby cities: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
@@ -73,15 +124,16 @@ public class WeatherController {
     @GetMapping("/forecast")
     public ResponseEntity<?> getForecast(
             @RequestParam String city,
-            @RequestParam(defaultValue = "3") int days) {
+            @RequestParam(defaultValue = "3") int days,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
             if (days < 1 || days > 4) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "Days parameter must be between 1 and 4");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
-            ForecastDTO forecast = weatherService.getForecast(city, days);
-            return ResponseEntity.ok(forecast);
+            CachedValue<ForecastDTO> forecast = weatherService.lookupForecast(city, days);
+            return cachedResponses.ok("forecast|" + LocationKey.normalize(city) + "|" + days, forecast, accept);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch forecast for " + city + ": " + e.getMessage());
@@ -93,7 +145,8 @@ public class WeatherController {
     public ResponseEntity<?> getForecastByCoords(
             @RequestParam double lat,
             @RequestParam double lon,
-            @RequestParam(defaultValue = "3") int days) {
+            @RequestParam(defaultValue = "3") int days,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
             if (days < 1 || days > 4) {
                 Map<String, String> error = new HashMap<>();
@@ -101,8 +154,8 @@ public class WeatherController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
             String location = lat + "," + lon;
-            ForecastDTO forecast = weatherService.getForecast(location, days);
-            return ResponseEntity.ok(forecast);
+            CachedValue<ForecastDTO> forecast = weatherService.lookupForecast(location, days);
+            return cachedResponses.ok("forecast|" + LocationKey.normalize(location) + "|" + days, forecast, accept);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch forecast for coordinates: " + e.getMessage());
@@ -110,8 +163,148 @@ public class WeatherController {
         }
     }
 
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "60") int bucketMinutes) {
+        if (city == null && (lat == null || lon == null)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Either city or lat and lon is required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        // Same location the weather was looked up by, so it matches the recorded observations
+        String location = city != null ? city : LocationKey.ofCoords(lat, lon);
+        try {
+            // Defaults to the last 24 hours
+            Instant end = to != null ? Instant.parse(to) : Instant.now();
+            Instant start = from != null ? Instant.parse(from) : end.minus(Duration.ofDays(1));
+            List<HistoryBucketDTO> history = weatherHistoryService.getHistory(
+                    location, start, end, Duration.ofMinutes(bucketMinutes));
+            return ResponseEntity.ok(history);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid history range: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            log.warn("Error fetching history for {}: {}", location, e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Could not fetch weather history: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> getWeatherBatch(@RequestBody Map<String, Object> request) {
+        try {
+            List<BatchWeatherResult> results = weatherBatchService.getWeather(toQueries(request));
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid batch: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    // Same batch, but one JSON object per line in completion order
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamWeatherBatch(@RequestBody Map<String, Object> request) {
+        List<String> queries;
+        try {
+            // Validate up front so a bad request still gets a 400 instead of a broken stream
+            queries = weatherBatchService.uniqueQueries(toQueries(request));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid batch: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        StreamingResponseBody body = out -> weatherBatchService.streamWeather(queries, result -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Server-sent events for the given locations, e.g. ?location=London&location=40.71,-74.01.
+     * Sends a "weather" event with the full WeatherDTO per location, then "delta" events
+     * holding only the fields that changed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamWeather(@RequestParam MultiValueMap<String, String> params) {
+        // Read the raw values: binding to List<String> would split "lat,lon" on the comma
+        List<String> locations = params.getOrDefault("location", List.of());
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        WeatherUpdateHub.Subscription subscription;
+        try {
+            subscription = weatherUpdateHub.subscribe(locations, new WeatherUpdateHub.Listener() {
+                @Override
+                public void send(String event, Object data) throws IOException {
+                    emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+                }
+
+                @Override
+                public void ping() throws IOException {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid stream request: " + e.getMessage());
+            try {
+                emitter.send(SseEmitter.event().name("error").data(error, MediaType.APPLICATION_JSON));
+            } catch (IOException ignored) {
+                // Nothing more to tell a client that is already gone
+            }
+            emitter.complete();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(emitter);
+        }
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return ResponseEntity.ok(emitter);
+    }
+
+    // For clients requesting conditions=codes; ids are stable, so fetch again only on an unknown one
+    @GetMapping("/conditions")
+    public ResponseEntity<Map<String, ForecastDTO.Condition>> getConditions() {
+        return ResponseEntity.ok(conditionRegistry.dictionary());
+    }
+
     @GetMapping("/")
     public String home() {
         return "Weather API is running";
     }
+
+    // Accepts {"locations": ["London", "40.71,-74.01", {"lat": 40.71, "lon": -74.01}, {"city": "Paris"}]}
+    private static List<String> toQueries(Map<String, Object> request) {
+        Object locations = request.get("locations");
+        if (!(locations instanceof List<?> items)) {
+            throw new IllegalArgumentException("'locations' must be a list");
+        }
+        List<String> queries = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (item instanceof String city) {
+                queries.add(city);
+            } else if (item instanceof Map<?, ?> map && map.get("lat") instanceof Number lat
+                    && map.get("lon") instanceof Number lon) {
+                queries.add(lat.doubleValue() + "," + lon.doubleValue());
+            } else if (item instanceof Map<?, ?> map && map.get("city") instanceof String city) {
+                queries.add(city);
+            } else {
+                throw new IllegalArgumentException("Each location must be a city name or a lat/lon pair");
+            }
+        }
+        return queries;
+    }
 }
@@ -1,70 +1,255 @@
 package com.WeatherDashboard.WeatherDashboard;
 
 import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
 import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.cache.CacheStats;
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.CoalescingStats;
+import com.WeatherDashboard.WeatherDashboard.cache.ForecastCache;
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.cache.SharedWeatherCache;
+import com.WeatherDashboard.WeatherDashboard.cache.SingleFlight;
+import com.WeatherDashboard.WeatherDashboard.cache.TtlCache;
+import com.WeatherDashboard.WeatherDashboard.cache.WeatherCodec;
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamApi;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamClient;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamRejectedException;
+import com.WeatherDashboard.WeatherDashboard.geo.CityIndex;
+import com.WeatherDashboard.WeatherDashboard.geo.NearbyCity;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import com.WeatherDashboard.WeatherDashboard.provider.CurrentWeatherProviders;
+import com.WeatherDashboard.WeatherDashboard.service.RegionLookupService;
+import com.WeatherDashboard.WeatherDashboard.service.WeatherHistoryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class WeatherService {
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
+
     @Value("${weatherapi.key}")
     private String API_KEY;
-    private final String BASE_URL = "http://api.weatherapi.com/v1/current.json";
-    private final String FORECAST_URL = "http://api.weatherapi.com/v1/forecast.json";
+    private final String FORECAST_URL = "https://api.weatherapi.com/v1/forecast.json";
 
     @Value("${openweather.key}")
     private String GEO_CODING;
     private final String GEO_CODING_URL = "https://api.openweathermap.org/geo/1.0/";
 
+    // Time budget for nearby-city region lookups before falling back to the 5km rule
+    @Value("${weather.nearby.region-check-budget-ms:2000}")
+    private long regionCheckBudgetMs = 2000;
+
+    // Time budget for fetching weather of gazetteer matches; late ones are returned without weather
+    @Value("${weather.nearby.weather-budget-ms:3000}")
+    private long nearbyWeatherBudgetMs = 3000;
+
+    // How old cached data may be and still be served while a provider is rejecting calls
+    @Value("${weather.cache.stale-max-age-seconds:3600}")
+    private long staleMaxAgeSeconds = 3600;
+
+    // How long after expiry cached data is still served at once while it is refreshed in the background
+    @Value("${weather.cache.stale-while-revalidate-seconds:60}")
+    private long staleWhileRevalidateSeconds = 60;
+
+    private final ExecutorService nearbyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService revalidateExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Keys with a background refresh running, so a burst of stale hits starts only one
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    // Identical concurrent lookups of the same priority share one upstream call; a user
+    // request never joins a background flight, which would wait with background quota limits
+    private final SingleFlight<String, CachedValue<WeatherDTO>> currentWeatherFlights = new SingleFlight<>();
+    private final SingleFlight<String, CachedValue<ForecastDTO>> forecastFlights = new SingleFlight<>();
+    private final UpstreamClient upstreamClient;
+    private final TtlCache<String, WeatherDTO> currentWeatherCache;
+    private final ForecastCache forecastCache;
+    private final SharedWeatherCache sharedWeatherCache;
+    private final RegionLookupService regionLookupService;
+    private final WeatherHistoryService weatherHistoryService;
+    private final CityIndex cityIndex;
+    private final CurrentWeatherProviders currentWeatherProviders;
+    private final ForecastParser forecastParser;
+
+    @Autowired
+    public WeatherService(UpstreamClient upstreamClient,
+                          TtlCache<String, WeatherDTO> currentWeatherCache,
+                          ForecastCache forecastCache,
+                          SharedWeatherCache sharedWeatherCache,
+                          RegionLookupService regionLookupService,
+                          WeatherHistoryService weatherHistoryService,
+                          CityIndex cityIndex,
+                          CurrentWeatherProviders currentWeatherProviders,
+                          ConditionRegistry conditionRegistry) {
+        this.upstreamClient = upstreamClient;
+        this.currentWeatherCache = currentWeatherCache;
+        this.forecastCache = forecastCache;
+        this.sharedWeatherCache = sharedWeatherCache;
+        this.regionLookupService = regionLookupService;
+        this.weatherHistoryService = weatherHistoryService;
+        this.cityIndex = cityIndex;
+        this.currentWeatherProviders = currentWeatherProviders;
+        this.forecastParser = new ForecastParser(conditionRegistry);
+        // Another node stored a newer value; the next lookup here reads it from the shared cache
+        sharedWeatherCache.onInvalidate((cache, key) -> {
+            if (SharedWeatherCache.CURRENT.equals(cache)) {
+                currentWeatherCache.invalidate(key);
+            } else {
+                forecastCache.invalidate(key);
+            }
+        });
+    }
+
     public WeatherDTO getWeather(String city) {
-        String url = BASE_URL + "?key=" + API_KEY + "&q=" + city;
-        RestTemplate restTemplate = new RestTemplate();
+        return lookupWeather(city).value();
+    }
 
+    /**
+     * Current weather with when it was fetched and until when it is fresh. A value that
+     * expired less than stale-while-revalidate-seconds ago is returned at once (flagged
+     * stale) and refreshed in the background.
+     */
+    public CachedValue<WeatherDTO> lookupWeather(String city) {
+        // Coordinates are snapped to ~1km so /weather/coords, saved cities and
+        // nearby-city lookups for the same spot share one cache entry
+        String key = LocationKey.normalize(city);
+        CachedValue<WeatherDTO> cached = currentWeatherCache.getEntry(key, Duration.ofSeconds(staleWhileRevalidateSeconds));
+        if (cached != null) {
+            if (cached.stale()) {
+                revalidate("current|" + key, () -> loadWeather(key, city));
+            }
+            return cached;
+        }
         try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            Map<String, Object> location = (Map<String, Object>) response.get("location");
-            Map<String, Object> current = (Map<String, Object>) response.get("current");
-            Map<String, Object> condition = (Map<String, Object>) current.get("condition");
-            
-            return new WeatherDTO(
-                    (String) location.get("name"),
-                    (String) location.get("region"),
-                    (String) location.get("country"),
-                    ((Number) current.get("temp_f")).doubleValue(),
-                    ((Number) current.get("temp_c")).doubleValue(),
-                    (String) condition.get("text"),
-                    ((Number) current.get("humidity")).intValue(),
-                    ((Number) current.get("wind_mph")).doubleValue(),
-                    ((Number) location.get("lat")).doubleValue(),
-                    ((Number) location.get("lon")).doubleValue()
-            );
+            return loadWeather(key, city);
+        } catch (RuntimeException e) {
+            CachedValue<WeatherDTO> stale = UpstreamRejectedException.isRejection(e)
+                    ? currentWeatherCache.peek(key, Duration.ofSeconds(staleMaxAgeSeconds)) : null;
+            if (stale == null) {
+                throw e;
+            }
+            log.debug("Serving stale weather for {}: {}", key, e.getMessage());
+            return stale;
+        }
+    }
+
+    private CachedValue<WeatherDTO> loadWeather(String key, String city) {
+        return currentWeatherFlights.execute(flightKey(key), () -> {
+            // A flight that ended after this caller's cache miss may already have stored a value
+            CachedValue<WeatherDTO> local = currentWeatherCache.peek(key, Duration.ZERO);
+            if (local != null) {
+                return local;
+            }
+            CachedValue<WeatherDTO> shared = sharedWeather(key);
+            if (shared != null && !shared.stale()) {
+                return shared;
+            }
+            return sharedWeatherCache.fetchOnce(SharedWeatherCache.CURRENT, key, () -> freshOnly(sharedWeather(key)), () -> {
+                // Cached before the flight completes, so callers that start a flight after it find it above
+                CachedValue<WeatherDTO> fetched = currentWeatherCache.put(key, fetchWeather(key, city));
+                sharedWeatherCache.putCurrent(key, fetched);
+                return fetched;
+            });
+        });
+    }
+
+    /**
+     * Copies what another node stored for the key into the local cache, even if it has
+     * expired, so it is there for the stale fallback if the fetch that follows is rejected.
+     */
+    private CachedValue<WeatherDTO> sharedWeather(String key) {
+        WeatherCodec.Entry<WeatherDTO> entry = sharedWeatherCache.getCurrent(key);
+        if (entry == null) {
+            return null;
+        }
+        return currentWeatherCache.put(key, entry.value(), entry.fetchedAt(), entry.expiresAt());
+    }
+
+    private static String flightKey(String key) {
+        return CallPriority.current() + "|" + key;
+    }
+
+    private static <V> CachedValue<V> freshOnly(CachedValue<V> cached) {
+        return cached == null || cached.stale() ? null : cached;
+    }
+
+    private void revalidate(String refreshKey, Runnable refresh) {
+        if (!revalidating.add(refreshKey)) {
+            return;
+        }
+        try {
+            revalidateExecutor.execute(() -> {
+                try {
+                    // The caller already has a value, so this can wait behind interactive calls
+                    CallPriority.BACKGROUND.run(refresh);
+                } catch (RuntimeException e) {
+                    // The stale value stays until it ages out; the next stale hit tries again
+                    log.debug("Background refresh failed for {}: {}", refreshKey, e.getMessage());
+                } finally {
+                    revalidating.remove(refreshKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            revalidating.remove(refreshKey);
+        }
+    }
+
+    public CacheStats getCurrentWeatherCacheStats() {
+        return currentWeatherCache.stats();
+    }
+
+    public CacheStats getForecastCacheStats() {
+        return forecastCache.stats();
+    }
+
+    public CoalescingStats getCurrentWeatherCoalescingStats() {
+        return currentWeatherFlights.stats();
+    }
+
+    public CoalescingStats getForecastCoalescingStats() {
+        return forecastFlights.stats();
+    }
+
+    private WeatherDTO fetchWeather(String key, String city) {
+        try {
+            WeatherDTO weather = currentWeatherProviders.fetch(city);
+            // Only real upstream fetches are recorded; cache hits would just duplicate rows
+            weatherHistoryService.record(key, weather);
+            return weather;
         } catch(Exception e) {
             throw new RuntimeException("Failed to fetch weather for: " + city, e);
         }
     }
 
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
     /**
      * Calculate distance between two coordinates using Haversine formula
      * @return distance in kilometers
      */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS_KM = 6371;
-        
-        double lat1Rad = Math.toRadians(lat1);
-        double lat2Rad = Math.toRadians(lat2);
-        double deltaLat = Math.toRadians(lat2 - lat1);
-        double deltaLon = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return EARTH_RADIUS_KM * c;
+    static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        return CityIndex.distanceKm(lat1, lon1, lat2, lon2);
     }
 
     public Map<String, Object> getNearbyCities(double lat,  double lon, String userRegion){
@@ -72,8 +257,13 @@ public class WeatherService {
         if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
             throw new IllegalArgumentException("Invalid coordinates: lat=" + lat + ", lon=" + lon);
         }
-        
-        RestTemplate restTemplate = new RestTemplate();
+
+        // Areas the gazetteer fully covers are answered locally; only the weather comes from upstream.
+        // It only lists larger places, so where it has fewer than 6 matches the find API knows more.
+        List<NearbyCity> indexed = cityIndex.nearest(lat, lon, 15.0, 6, nearbyFilter(userRegion));
+        if (indexed.size() == 6) {
+            return getNearbyCitiesFromIndex(indexed);
+        }
 
         // Request more cities initially (20) so we have enough to filter from
         // We'll filter to only cities within 15km and return the 6 closest
@@ -86,7 +276,7 @@ public class WeatherService {
                 + "&appid=" + GEO_CODING;
 
         try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            Map<String, Object> response = upstreamClient.getJson(UpstreamApi.OPENWEATHERMAP_FIND, url);
             
             // Extract the list of cities
             @SuppressWarnings("unchecked")
@@ -97,107 +287,14 @@ public class WeatherService {
             }
             
             // Calculate distance for each city and filter/sort
-            List<Map<String, Object>> citiesWithDistance = cities.stream()
-                .map(city -> {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> coord = (Map<String, Object>) city.get("coord");
-                    if (coord == null) {
-                        return null;
-                    }
-                    
-                    double cityLat = ((Number) coord.get("lat")).doubleValue();
-                    double cityLon = ((Number) coord.get("lon")).doubleValue();
-                    double distance = calculateDistance(lat, lon, cityLat, cityLon);
-                    
-                    // Add distance to city data for sorting
-                    Map<String, Object> cityWithDistance = new HashMap<>(city);
-                    cityWithDistance.put("_distance", distance);
-                    
-                    return cityWithDistance;
-                })
-                .filter(city -> city != null)
-                .filter(city -> {
-                    // Filter to only cities within 15km (strict limit for truly nearby cities)
-                    double distance = ((Number) city.get("_distance")).doubleValue();
-                    return distance <= 15.0; // 15km limit
-                })
-                .sorted((c1, c2) -> {
-                    // Sort by distance (closest first)
-                    double d1 = ((Number) c1.get("_distance")).doubleValue();
-                    double d2 = ((Number) c2.get("_distance")).doubleValue();
-                    return Double.compare(d1, d2);
-                })
-                .limit(10) // Get top 10 by distance to filter by state
-                .collect(Collectors.toList());
+            List<Map<String, Object>> citiesWithDistance = rankByDistance(cities, lat, lon);
             
             // If user region is provided, filter cities to match the same state/region
             List<Map<String, Object>> filteredCities;
             if (userRegion != null && !userRegion.trim().isEmpty()) {
-                System.out.println("Filtering nearby cities by region: " + userRegion);
-                filteredCities = new ArrayList<>();
-                int checked = 0;
-                for (Map<String, Object> city : citiesWithDistance) {
-                    checked++;
-                    try {
-                        // Get city coordinates and distance
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> coord = (Map<String, Object>) city.get("coord");
-                        double cityLat = ((Number) coord.get("lat")).doubleValue();
-                        double cityLon = ((Number) coord.get("lon")).doubleValue();
-                        String cityName = (String) city.get("name");
-                        double distance = ((Number) city.get("_distance")).doubleValue();
-                        
-                        // Fetch full city data from WeatherAPI to get accurate state/region
-                        String locationQuery = cityLat + "," + cityLon;
-                        WeatherDTO cityWeather = getWeather(locationQuery);
-                        
-                        System.out.println("City: " + cityName + ", Region: " + cityWeather.region() + ", Distance: " + distance + "km, Match: " + userRegion.equalsIgnoreCase(cityWeather.region()));
-                        
-                        // Check if city is in the same state/region (case-insensitive)
-                        boolean regionMatches = userRegion.equalsIgnoreCase(cityWeather.region());
-                        
-                        // Include city if:
-                        // 1. Region matches, OR
-                        // 2. City is very close (within 5km) - likely in same area even if region check fails
-                        if (regionMatches || distance <= 5.0) {
-                            // Remove the temporary distance field
-                            Map<String, Object> cleanedCity = new HashMap<>(city);
-                            cleanedCity.remove("_distance");
-                            filteredCities.add(cleanedCity);
-                            
-                            System.out.println("Added city: " + cityName + " (region match: " + regionMatches + ", distance: " + distance + "km)");
-                            
-                            // Stop once we have 6 cities
-                            if (filteredCities.size() >= 6) {
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        // If we can't verify the state, but city is very close, include it anyway
-                        double distance = ((Number) city.get("_distance")).doubleValue();
-                        if (distance <= 5.0) {
-                            System.out.println("Failed to verify state for city, but including due to proximity (" + distance + "km): " + e.getMessage());
-                            Map<String, Object> cleanedCity = new HashMap<>(city);
-                            cleanedCity.remove("_distance");
-                            filteredCities.add(cleanedCity);
-                            
-                            if (filteredCities.size() >= 6) {
-                                break;
-                            }
-                        } else {
-                            System.out.println("Failed to verify state for city (too far): " + e.getMessage());
-                        }
-                        continue;
-                    }
-                    
-                    // If we've checked 15 cities, break
-                    if (checked >= 15) {
-                        break;
-                    }
-                }
-                System.out.println("Filtered cities count: " + filteredCities.size());
+                filteredCities = filterByRegion(citiesWithDistance, userRegion);
+                log.debug("Kept {} of {} nearby cities in region {}", filteredCities.size(), citiesWithDistance.size(), userRegion);
             } else {
-                System.out.println("No region filter provided, returning closest cities");
                 // No region filter, just take the 6 closest
                 filteredCities = citiesWithDistance.stream()
                     .limit(6)
@@ -220,80 +317,259 @@ public class WeatherService {
         }
     }
 
+    /**
+     * Same selection rules as the upstream path (15km, in region or within 5km, 6 closest),
+     * but the region check is a field comparison on the gazetteer instead of a lookup per city.
+     */
+    private CityIndex.Filter nearbyFilter(String userRegion) {
+        if (userRegion == null || userRegion.trim().isEmpty()) {
+            return CityIndex.Filter.ANY;
+        }
+        int regionId = cityIndex.regionId(userRegion);
+        return (city, distanceKm) -> distanceKm <= 5.0 || cityIndex.inRegion(city, regionId);
+    }
+
+    private Map<String, Object> getNearbyCitiesFromIndex(List<NearbyCity> cities) {
+        List<Future<WeatherDTO>> weather = new ArrayList<>(cities.size());
+        for (NearbyCity city : cities) {
+            // Cities are listed without weather if it is late, so these never hold up interactive calls
+            weather.add(nearbyExecutor.submit(CallPriority.BACKGROUND.wrap(() -> getWeather(city.lat() + "," + city.lon()))));
+        }
+
+        long deadline = System.nanoTime() + nearbyWeatherBudgetMs * 1_000_000L;
+        List<Map<String, Object>> list = new ArrayList<>(cities.size());
+        for (int i = 0; i < cities.size(); i++) {
+            list.add(toNearbyCityData(cities.get(i), awaitWeather(weather.get(i), deadline)));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("cod", "200");
+        response.put("source", "gazetteer");
+        response.put("list", list);
+        response.put("count", list.size());
+        return response;
+    }
+
+    private WeatherDTO awaitWeather(Future<WeatherDTO> future, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("No weather for nearby city: {}", e.getMessage());
+        }
+        future.cancel(true);
+        return null;
+    }
+
+    /**
+     * Shapes a gazetteer match like an openweathermap find result so the UI can use
+     * either source. Cities whose weather did not arrive in time are listed without it.
+     */
+    private static Map<String, Object> toNearbyCityData(NearbyCity city, WeatherDTO weather) {
+        Map<String, Object> cityData = new HashMap<>();
+        cityData.put("name", city.name());
+        cityData.put("region", city.region());
+        cityData.put("population", city.population());
+        cityData.put("distance_km", Math.round(city.distanceKm() * 10) / 10.0);
+        cityData.put("coord", Map.of("lat", city.lat(), "lon", city.lon()));
+        cityData.put("sys", Map.of("country", city.country()));
+        if (weather != null) {
+            cityData.put("main", Map.of("temp", weather.tempF(), "humidity", weather.humidity()));
+            cityData.put("weather", List.of(Map.of("description", weather.condition())));
+            cityData.put("wind", Map.of("speed", weather.windMph()));
+        }
+        return cityData;
+    }
+
+    /**
+     * Adds a temporary _distance field to each candidate, keeps those within 15km
+     * and returns the 10 closest, nearest first
+     */
+    static List<Map<String, Object>> rankByDistance(List<Map<String, Object>> cities, double lat, double lon) {
+        return cities.stream()
+            .map(city -> {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> coord = (Map<String, Object>) city.get("coord");
+                if (coord == null) {
+                    return null;
+                }
+                
+                double cityLat = ((Number) coord.get("lat")).doubleValue();
+                double cityLon = ((Number) coord.get("lon")).doubleValue();
+                double distance = calculateDistance(lat, lon, cityLat, cityLon);
+                
+                // Add distance to city data for sorting
+                Map<String, Object> cityWithDistance = new HashMap<>(city);
+                cityWithDistance.put("_distance", distance);
+                
+                return cityWithDistance;
+            })
+            .filter(city -> city != null)
+            .filter(city -> {
+                // Filter to only cities within 15km (strict limit for truly nearby cities)
+                double distance = ((Number) city.get("_distance")).doubleValue();
+                return distance <= 15.0; // 15km limit
+            })
+            .sorted((c1, c2) -> {
+                // Sort by distance (closest first)
+                double d1 = ((Number) c1.get("_distance")).doubleValue();
+                double d2 = ((Number) c2.get("_distance")).doubleValue();
+                return Double.compare(d1, d2);
+            })
+            .limit(10) // Get top 10 by distance to filter by state
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Keeps candidates (already sorted by distance) that are in the user's region or
+     * within 5km, stopping at 6. Region lookups run concurrently; a lookup that fails
+     * or misses the time budget falls back to the 5km rule, same as a failed lookup
+     * always did.
+     */
+    private List<Map<String, Object>> filterByRegion(List<Map<String, Object>> candidates, String userRegion) {
+        // Cities within 5km are kept whatever their region, so only look up the rest
+        List<Future<String>> lookups = new ArrayList<>(candidates.size());
+        for (Map<String, Object> city : candidates) {
+            if (distanceOf(city) <= 5.0) {
+                lookups.add(null);
+            } else {
+                lookups.add(nearbyExecutor.submit(CallPriority.BACKGROUND.wrap(() -> lookupRegion(city))));
+            }
+        }
+
+        long deadline = System.nanoTime() + regionCheckBudgetMs * 1_000_000L;
+        List<Map<String, Object>> filteredCities = new ArrayList<>();
+        try {
+            // Walk in distance order so the result is the same as checking one by one
+            for (int i = 0; i < candidates.size() && filteredCities.size() < 6; i++) {
+                Future<String> lookup = lookups.get(i);
+                if (lookup == null || isInRegion(lookup, userRegion, deadline)) {
+                    Map<String, Object> cleanedCity = new HashMap<>(candidates.get(i));
+                    cleanedCity.remove("_distance");
+                    filteredCities.add(cleanedCity);
+                }
+            }
+        } finally {
+            // Early exit: nobody needs the remaining lookups
+            for (Future<String> lookup : lookups) {
+                if (lookup != null) {
+                    lookup.cancel(true);
+                }
+            }
+        }
+        return filteredCities;
+    }
+
+    /**
+     * Region of a candidate city, from the cell cache when this area has been seen
+     * before, otherwise from a current-weather call that then fills the cache.
+     */
+    @SuppressWarnings("unchecked")
+    private String lookupRegion(Map<String, Object> city) {
+        Map<String, Object> coord = (Map<String, Object>) city.get("coord");
+        double cityLat = ((Number) coord.get("lat")).doubleValue();
+        double cityLon = ((Number) coord.get("lon")).doubleValue();
+
+        Optional<String> known = regionLookupService.findRegion(cityLat, cityLon);
+        if (known.isPresent()) {
+            return known.get();
+        }
+        WeatherDTO cityWeather = getWeather(cityLat + "," + cityLon);
+        regionLookupService.recordRegion(cityLat, cityLon, cityWeather.region(), cityWeather.country());
+        return cityWeather.region();
+    }
+
+    private boolean isInRegion(Future<String> lookup, String userRegion, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return userRegion.equalsIgnoreCase(lookup.get(remaining, TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static double distanceOf(Map<String, Object> city) {
+        return ((Number) city.get("_distance")).doubleValue();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        nearbyExecutor.shutdownNow();
+        revalidateExecutor.shutdownNow();
+    }
+
     public ForecastDTO getForecast(String city, int days) {
-        String url = FORECAST_URL + "?key=" + API_KEY + "&q=" + city + "&days=" + days + "&aqi=no&alerts=no";
-        RestTemplate restTemplate = new RestTemplate();
+        return lookupForecast(city, days).value();
+    }
 
+    /**
+     * Forecast with its timestamps; slightly stale forecasts are served and refreshed
+     * in the background like {@link #lookupWeather}.
+     */
+    public CachedValue<ForecastDTO> lookupForecast(String city, int days) {
+        String key = LocationKey.normalize(city);
+        CachedValue<ForecastDTO> cached = forecastCache.getEntry(key, days, Duration.ofSeconds(staleWhileRevalidateSeconds));
+        if (cached != null) {
+            if (cached.stale()) {
+                revalidate("forecast|" + key + "|" + days, () -> loadForecast(key, city, days));
+            }
+            return cached;
+        }
         try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            Map<String, Object> location = (Map<String, Object>) response.get("location");
-            Map<String, Object> forecast = (Map<String, Object>) response.get("forecast");
-            
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> forecastDays = (List<Map<String, Object>>) forecast.get("forecastday");
-            
-            List<ForecastDTO.ForecastDay> forecastDayList = forecastDays.stream()
-                .map(day -> {
-                    Map<String, Object> dayData = (Map<String, Object>) day.get("day");
-                    Map<String, Object> condition = (Map<String, Object>) dayData.get("condition");
-                    
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> hours = (List<Map<String, Object>>) day.get("hour");
-                    
-                    List<ForecastDTO.HourForecast> hourList = hours.stream()
-                        .map(hour -> {
-                            Map<String, Object> hourCondition = (Map<String, Object>) hour.get("condition");
-                            return new ForecastDTO.HourForecast(
-                                (String) hour.get("time"),
-                                ((Number) hour.get("temp_f")).doubleValue(),
-                                ((Number) hour.get("temp_c")).doubleValue(),
-                                new ForecastDTO.Condition(
-                                    (String) hourCondition.get("text"),
-                                    (String) hourCondition.get("icon"),
-                                    ((Number) hourCondition.get("code")).intValue()
-                                ),
-                                ((Number) hour.get("wind_mph")).doubleValue(),
-                                ((Number) hour.get("humidity")).intValue(),
-                                ((Number) hour.get("chance_of_rain")).intValue(),
-                                ((Number) hour.get("chance_of_snow")).intValue()
-                            );
-                        })
-                        .collect(Collectors.toList());
-                    
-                    return new ForecastDTO.ForecastDay(
-                        (String) day.get("date"),
-                        new ForecastDTO.DayForecast(
-                            ((Number) dayData.get("maxtemp_f")).doubleValue(),
-                            ((Number) dayData.get("maxtemp_c")).doubleValue(),
-                            ((Number) dayData.get("mintemp_f")).doubleValue(),
-                            ((Number) dayData.get("mintemp_c")).doubleValue(),
-                            ((Number) dayData.get("avgtemp_f")).doubleValue(),
-                            ((Number) dayData.get("avgtemp_c")).doubleValue(),
-                            ((Number) dayData.get("maxwind_mph")).doubleValue(),
-                            ((Number) dayData.get("totalprecip_in")).doubleValue(),
-                            ((Number) dayData.get("totalprecip_mm")).doubleValue(),
-                            ((Number) dayData.get("avghumidity")).intValue(),
-                            new ForecastDTO.Condition(
-                                (String) condition.get("text"),
-                                (String) condition.get("icon"),
-                                ((Number) condition.get("code")).intValue()
-                            ),
-                            ((Number) dayData.get("daily_chance_of_rain")).intValue(),
-                            ((Number) dayData.get("daily_chance_of_snow")).intValue()
-                        ),
-                        hourList
-                    );
-                })
-                .collect(Collectors.toList());
-            
-            return new ForecastDTO(
-                (String) location.get("name"),
-                (String) location.get("region"),
-                (String) location.get("country"),
-                ((Number) location.get("lat")).doubleValue(),
-                ((Number) location.get("lon")).doubleValue(),
-                forecastDayList
-            );
+            return loadForecast(key, city, days);
+        } catch (RuntimeException e) {
+            CachedValue<ForecastDTO> stale = UpstreamRejectedException.isRejection(e)
+                    ? forecastCache.peek(key, days, Duration.ofSeconds(staleMaxAgeSeconds)) : null;
+            if (stale == null) {
+                throw e;
+            }
+            log.debug("Serving stale forecast for {}: {}", key, e.getMessage());
+            return stale;
+        }
+    }
+
+    private CachedValue<ForecastDTO> loadForecast(String key, String city, int days) {
+        return forecastFlights.execute(flightKey(key + "|" + days), () -> {
+            CachedValue<ForecastDTO> local = forecastCache.peek(key, days, Duration.ZERO);
+            if (local != null) {
+                return local;
+            }
+            CachedValue<ForecastDTO> shared = sharedForecast(key, days);
+            if (shared != null && !shared.stale()) {
+                return shared;
+            }
+            return sharedWeatherCache.fetchOnce(SharedWeatherCache.FORECAST, key + "|" + days,
+                    () -> freshOnly(sharedForecast(key, days)), () -> {
+                        ForecastDTO forecast = fetchForecast(city, days);
+                        CachedValue<ForecastDTO> stored = forecastCache.put(key, days, forecast);
+                        sharedWeatherCache.putForecast(key, days,
+                                new CachedValue<>(forecast, stored.fetchedAt(), stored.expiresAt(), false));
+                        return stored;
+                    });
+        });
+    }
+
+    private CachedValue<ForecastDTO> sharedForecast(String key, int days) {
+        WeatherCodec.Entry<ForecastDTO> entry = sharedWeatherCache.getForecast(key);
+        if (entry == null || entry.days() < days) {
+            return null;
+        }
+        forecastCache.put(key, entry.days(), entry.value(), entry.fetchedAt(), entry.expiresAt());
+        // Sliced to the requested days, or a wider fresh horizon this node already had
+        return forecastCache.peek(key, days, Duration.ofSeconds(staleMaxAgeSeconds));
+    }
+
+    private ForecastDTO fetchForecast(String city, int days) {
+        String url = FORECAST_URL + "?key=" + API_KEY + "&q=" + encode(city) + "&days=" + days + "&aqi=no&alerts=no";
+
+        try {
+            // Streamed straight into the DTO; no intermediate Map tree per hour
+            return upstreamClient.get(UpstreamApi.WEATHERAPI_FORECAST, url, forecastParser);
         } catch(Exception e) {
             throw new RuntimeException("Failed to fetch forecast for: " + city, e);
         }
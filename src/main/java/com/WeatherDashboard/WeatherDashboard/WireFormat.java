@@ -0,0 +1,101 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Representations the weather and forecast endpoints can be served in, chosen by the
+ * Accept header. JSON stays the default; the others trade readability for size.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    // Forecast hours as one array per field instead of one object per hour
+    COLUMNAR_JSON(MediaType.parseMediaType(WireFormat.COLUMNAR_JSON_VALUE), "columnar"),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(MediaType.parseMediaType(WireFormat.SMILE_VALUE), "smile");
+
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.weather.columnar+json";
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    // Media type parameter for any format: conditions=codes
+    public static final String CONDITIONS_PARAMETER = "conditions";
+    public static final String CONDITION_CODES = "codes";
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    WireFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format Spring's content negotiation will write for this Accept header:
+     * the most specific, highest quality type any format matches, with ties going to
+     * the earlier format. Anything unparseable or unmatched gets JSON.
+     */
+    public static WireFormat negotiate(String accept) {
+        MediaType requested = requested(accept);
+        return requested == null ? JSON : of(requested);
+    }
+
+    /**
+     * True for a type asking for conditions as ids only, e.g. application/json;conditions=codes.
+     */
+    public static boolean conditionCodesOnly(MimeType type) {
+        return type != null && CONDITION_CODES.equals(type.getParameter(CONDITIONS_PARAMETER));
+    }
+
+    /**
+     * The same payload in another format is a different representation, so it needs its
+     * own ETag for If-None-Match and shared caches (which see Vary: Accept) to be right.
+     */
+    static String etag(String accept, String jsonEtag) {
+        MediaType requested = requested(accept);
+        String suffix = requested == null ? null : of(requested).etagSuffix;
+        if (conditionCodesOnly(requested)) {
+            suffix = suffix == null ? CONDITION_CODES : suffix + "-" + CONDITION_CODES;
+        }
+        if (suffix == null) {
+            return jsonEtag;
+        }
+        return jsonEtag.substring(0, jsonEtag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    // The Accept entry negotiation will settle on, or null when none matches
+    private static MediaType requested(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() > 0 && of(type) != null) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static WireFormat of(MediaType requested) {
+        for (WireFormat format : values()) {
+            if (requested.isCompatibleWith(format.mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Message converters for the {@link WireFormat}s. CBOR and Smile are built from Spring
+ * Boot's Jackson builder so they write the same fields as JSON. Columnar JSON is the
+ * JSON converter with a second ObjectMapper for forecasts: a converter of its own would
+ * either be shadowed by the JSON one (which takes application/*+json) or be picked over
+ * JSON for wildcard Accept headers. Any of them writes conditions as ids only when the
+ * Accept entry carries conditions=codes.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+                return withConditionCodes(writer, contentType);
+            }
+        };
+        ObjectMapper columnar = objectMapper.copy().registerModule(new ColumnarHoursModule());
+        // Registration order is the order offered to content negotiation, so JSON stays the default
+        converter.registerObjectMappersForType(ForecastDTO.class, mappers -> {
+            mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+            mappers.put(WireFormat.COLUMNAR_JSON.mediaType(), columnar);
+        });
+        return converter;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+                return withConditionCodes(writer, contentType);
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+                return withConditionCodes(writer, contentType);
+            }
+        };
+    }
+
+    // The negotiated content type keeps the parameters of the Accept entry it came from
+    private static ObjectWriter withConditionCodes(ObjectWriter writer, MediaType contentType) {
+        return WireFormat.conditionCodesOnly(contentType) ? writer.withAttribute(ConditionRegistry.CODES_ONLY, true) : writer;
+    }
+}
@@ -0,0 +1,77 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Value("${weather.cache.current.ttl-seconds:300}")
+    private long currentTtlSeconds;
+
+    @Value("${weather.cache.current.max-size:2000}")
+    private int currentMaxSize;
+
+    @Value("${weather.cache.forecast.max-size:1000}")
+    private int forecastMaxSize;
+
+    // none, redis (spring.data.redis.*) or in-process
+    @Value("${weather.cache.shared.type:none}")
+    private String sharedType;
+
+    @Value("${weather.cache.shared.key-prefix:weather:v1:}")
+    private String sharedKeyPrefix;
+
+    @Value("${weather.cache.shared.channel:weather:invalidations}")
+    private String sharedChannel;
+
+    @Value("${weather.cache.shared.lock-ttl-ms:10000}")
+    private long sharedLockTtlMs;
+
+    @Value("${weather.cache.shared.lock-wait-ms:3000}")
+    private long sharedLockWaitMs;
+
+    @Value("${weather.cache.shared.error-backoff-ms:5000}")
+    private long sharedErrorBackoffMs;
+
+    // Shared entries outlive their ttl by this much so any node can serve them stale
+    @Value("${weather.cache.stale-max-age-seconds:3600}")
+    private long staleMaxAgeSeconds;
+
+    @Bean
+    public TtlCache<String, WeatherDTO> currentWeatherCache() {
+        return new TtlCache<>(currentMaxSize, Duration.ofSeconds(currentTtlSeconds));
+    }
+
+    @Bean
+    public ForecastCache forecastCache() {
+        return new ForecastCache(forecastMaxSize);
+    }
+
+    @Bean
+    public SharedWeatherCache sharedWeatherCache(ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                                 MeterRegistry meterRegistry,
+                                                 ConditionRegistry conditionRegistry) {
+        SharedStore store = switch (sharedType) {
+            case "none" -> null;
+            case "redis" -> new RedisSharedStore(redisConnectionFactory.getObject(), sharedChannel);
+            case "in-process" -> new InMemorySharedStore();
+            default -> throw new IllegalArgumentException("Unknown weather.cache.shared.type: " + sharedType);
+        };
+        if (store == null) {
+            return SharedWeatherCache.disabled();
+        }
+        return new SharedWeatherCache(store, sharedKeyPrefix, Duration.ofSeconds(staleMaxAgeSeconds),
+                Duration.ofMillis(sharedLockTtlMs), Duration.ofMillis(sharedLockWaitMs),
+                Duration.ofMillis(sharedErrorBackoffMs), Clock.systemUTC(), meterRegistry, conditionRegistry);
+    }
+}
@@ -0,0 +1,9 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long expirations,
+        int size
+) {}
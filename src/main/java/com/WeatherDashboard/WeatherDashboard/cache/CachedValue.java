@@ -0,0 +1,25 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * A cached value together with when it was fetched and when it stops being fresh,
+ * so callers can tell clients how old the data is.
+ * @param stale true if the value had already expired when it was looked up
+ */
+public record CachedValue<V>(V value, Instant fetchedAt, Instant expiresAt, boolean stale) {
+
+    /**
+     * Time the value stays fresh after now; zero once it has expired.
+     */
+    public Duration remainingTtl(Instant now) {
+        Duration remaining = Duration.between(now, expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public <R> CachedValue<R> map(Function<? super V, ? extends R> mapper) {
+        return new CachedValue<>(mapper.apply(value), fetchedAt, expiresAt, stale);
+    }
+}
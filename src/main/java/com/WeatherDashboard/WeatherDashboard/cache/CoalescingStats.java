@@ -0,0 +1,9 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+/**
+ * leaders: upstream calls actually made; collapsed: callers that shared one of them.
+ */
+public record CoalescingStats(
+        long leaders,
+        long collapsed
+) {}
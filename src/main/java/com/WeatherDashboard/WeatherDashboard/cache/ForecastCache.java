@@ -0,0 +1,122 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forecast cache that keeps the widest horizon fetched per location and serves
+ * shorter requests by slicing it, so a 1-day request after a 4-day one is free.
+ * Entries expire at the next top of the hour, when the upstream refreshes its
+ * forecasts, rather than after a fixed ttl.
+ */
+public class ForecastCache {
+
+    private final TtlCache<String, Horizon> entries;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ForecastCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public ForecastCache(int maxSize, Clock clock) {
+        this.entries = new TtlCache<>(maxSize, Duration.ofHours(1), clock);
+        this.clock = clock;
+    }
+
+    public ForecastDTO get(String locationKey, int days) {
+        CachedValue<ForecastDTO> entry = getEntry(locationKey, days, Duration.ZERO);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Forecast covering the horizon with its timestamps, including one that expired less
+     * than maxStale ago (flagged as stale). Only fresh forecasts count as hits.
+     */
+    public CachedValue<ForecastDTO> getEntry(String locationKey, int days, Duration maxStale) {
+        CachedValue<Horizon> entry = entries.getEntry(locationKey, maxStale);
+        if (entry == null || entry.value().days() < days) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.stale()) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return entry.map(horizon -> slice(horizon.forecast(), days));
+    }
+
+    /**
+     * Expired forecast covering the horizon, if it expired less than maxStale ago.
+     */
+    public ForecastDTO getStale(String locationKey, int days, Duration maxStale) {
+        CachedValue<ForecastDTO> entry = peek(locationKey, days, maxStale);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Like {@link #getStale} but with the entry's timestamps.
+     */
+    public CachedValue<ForecastDTO> peek(String locationKey, int days, Duration maxStale) {
+        CachedValue<Horizon> entry = entries.peek(locationKey, maxStale);
+        if (entry == null || entry.value().days() < days) {
+            return null;
+        }
+        return entry.map(horizon -> slice(horizon.forecast(), days));
+    }
+
+    /**
+     * @param days the horizon that was requested upstream; the response may hold
+     *             fewer days if the plan caps it, and that still counts as covering it
+     * @return the stored entry sliced to days; if a fresh wider horizon is already
+     *         cached it is kept and that is returned instead
+     */
+    public synchronized CachedValue<ForecastDTO> put(String locationKey, int days, ForecastDTO forecast) {
+        return put(locationKey, days, forecast, clock.instant(), nextRefresh());
+    }
+
+    /**
+     * Stores a forecast fetched elsewhere, such as by another node, keeping its timestamps;
+     * otherwise like {@link #put(String, int, ForecastDTO)}.
+     */
+    public synchronized CachedValue<ForecastDTO> put(String locationKey, int days, ForecastDTO forecast,
+                                                     Instant fetchedAt, Instant expiresAt) {
+        CachedValue<Horizon> current = entries.peek(locationKey, Duration.ZERO);
+        if (current != null && current.value().days() > days) {
+            return current.map(horizon -> slice(horizon.forecast(), days));
+        }
+        return entries.put(locationKey, new Horizon(days, forecast), fetchedAt, expiresAt)
+                .map(horizon -> slice(horizon.forecast(), days));
+    }
+
+    public void invalidate(String locationKey) {
+        entries.invalidate(locationKey);
+    }
+
+    public CacheStats stats() {
+        CacheStats underlying = entries.stats();
+        return new CacheStats(hits.get(), misses.get(), underlying.evictions(), underlying.expirations(), underlying.size());
+    }
+
+    static ForecastDTO slice(ForecastDTO forecast, int days) {
+        if (forecast.forecast().size() <= days) {
+            return forecast;
+        }
+        return new ForecastDTO(forecast.city(), forecast.region(), forecast.country(),
+                forecast.lat(), forecast.lon(), forecast.forecast().subList(0, days));
+    }
+
+    private Instant nextRefresh() {
+        return clock.instant().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+    }
+
+    private record Horizon(int days, ForecastDTO forecast) {}
+}
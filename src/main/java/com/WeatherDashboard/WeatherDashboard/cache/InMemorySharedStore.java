@@ -0,0 +1,74 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for a Redis server. Several SharedWeatherCache instances given
+ * the same store behave like app nodes sharing one Redis, which is how the tests
+ * exercise the shared tier; with weather.cache.shared.type=in-process it also gives a
+ * single node the tier without running Redis. Messages are delivered synchronously.
+ */
+public class InMemorySharedStore implements SharedStore {
+
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemorySharedStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemorySharedStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired(clock.millis())) {
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        entries.put(key, new Entry(value, clock.millis() + ttl.toMillis()));
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, byte[] value, Duration ttl) {
+        long now = clock.millis();
+        Entry fresh = new Entry(value, now + ttl.toMillis());
+        // compute is atomic per key, like SET NX on a single-threaded server
+        return entries.compute(key, (k, current) -> current == null || current.isExpired(now) ? fresh : current) == fresh;
+    }
+
+    @Override
+    public void deleteIfEquals(String key, byte[] value) {
+        entries.computeIfPresent(key, (k, current) -> Arrays.equals(current.value(), value) ? null : current);
+    }
+
+    @Override
+    public void publish(String message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private record Entry(byte[] value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
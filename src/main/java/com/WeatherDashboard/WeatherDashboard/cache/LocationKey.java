@@ -0,0 +1,51 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes location queries into cache keys.
+ * City names are trimmed and lower-cased; "lat,lon" queries are snapped to a
+ * 0.01 degree grid (about 1 km) so nearby lookups share the same entry.
+ */
+public final class LocationKey {
+
+    private static final double GRID = 100.0;
+    private static final Pattern COORDS = Pattern.compile(
+            "^\\s*(-?\\d+(?:\\.\\d+)?)\\s*,\\s*(-?\\d+(?:\\.\\d+)?)\\s*$");
+
+    private LocationKey() {
+    }
+
+    public static String normalize(String query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Location query must not be null");
+        }
+        Matcher matcher = COORDS.matcher(query);
+        if (matcher.matches()) {
+            return ofCoords(Double.parseDouble(matcher.group(1)), Double.parseDouble(matcher.group(2)));
+        }
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The latitude and longitude of a "lat,lon" query, or null for anything else.
+     */
+    public static double[] coordinates(String query) {
+        Matcher matcher = COORDS.matcher(query);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new double[] {Double.parseDouble(matcher.group(1)), Double.parseDouble(matcher.group(2))};
+    }
+
+    public static String ofCoords(double lat, double lon) {
+        return String.format(Locale.ROOT, "%.2f,%.2f", quantize(lat), quantize(lon));
+    }
+
+    private static double quantize(double value) {
+        // Adding 0.0 turns -0.0 into 0.0 so both round to the same key
+        return Math.round(value * GRID) / GRID + 0.0;
+    }
+}
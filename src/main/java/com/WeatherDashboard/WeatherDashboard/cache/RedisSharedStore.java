@@ -0,0 +1,117 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * SharedStore on a Redis (or Redis-protocol compatible) server through Spring Data Redis.
+ * Values are stored as raw bytes; invalidation messages go over one pub/sub channel.
+ */
+public class RedisSharedStore implements SharedStore {
+
+    private static final RedisScript<Long> DELETE_IF_EQUALS = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSharedStore.class);
+
+    private static final Duration RECOVERY_INTERVAL = Duration.ofSeconds(5);
+
+    private final RedisTemplate<String, byte[]> template;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic channel;
+    private Thread subscriber;
+    private volatile boolean closed;
+
+    public RedisSharedStore(RedisConnectionFactory connectionFactory, String channel) {
+        this.template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        // Resubscribes after the connection drops
+        listenerContainer.setRecoveryInterval(RECOVERY_INTERVAL.toMillis());
+        listenerContainer.afterPropertiesSet();
+        this.channel = new ChannelTopic(channel);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return template.opsForValue().get(key);
+    }
+
+    @Override
+    public void set(String key, byte[] value, Duration ttl) {
+        template.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, byte[] value, Duration ttl) {
+        return Boolean.TRUE.equals(template.opsForValue().setIfAbsent(key, value, ttl));
+    }
+
+    @Override
+    public void deleteIfEquals(String key, byte[] value) {
+        template.execute(DELETE_IF_EQUALS, List.of(key), (Object) value);
+    }
+
+    @Override
+    public void publish(String message) {
+        template.convertAndSend(channel.getTopic(), message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)), channel);
+        if (subscriber == null) {
+            subscriber = Thread.ofVirtual().name("redis-invalidations").start(this::listen);
+        }
+    }
+
+    // Subscribing fails while the server is down, which must not stop the app from starting
+    private void listen() {
+        while (!listenerContainer.isListening() && !closed) {
+            try {
+                listenerContainer.start();
+            } catch (RuntimeException e) {
+                log.warn("Cannot subscribe to Redis channel {}, retrying in {}: {}",
+                        channel.getTopic(), RECOVERY_INTERVAL, e.getMessage());
+                // A failed start still counts as running; stop so the next start subscribes again
+                listenerContainer.stop();
+                try {
+                    Thread.sleep(RECOVERY_INTERVAL);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (subscriber != null) {
+            subscriber.interrupt();
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to stop the Redis listener", e);
+        }
+    }
+}
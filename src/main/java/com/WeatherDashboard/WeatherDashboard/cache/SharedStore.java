@@ -0,0 +1,39 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * The few key-value and pub/sub operations the shared cache tier needs, with Redis
+ * semantics (GET, SET PX, SET NX PX, compare-and-delete, PUBLISH/SUBSCRIBE on one
+ * channel). {@link RedisSharedStore} talks to a real server; {@link InMemorySharedStore}
+ * stands in for one inside a single JVM.
+ */
+public interface SharedStore {
+
+    byte[] get(String key);
+
+    void set(String key, byte[] value, Duration ttl);
+
+    /**
+     * Sets the key only if it does not exist yet.
+     * @return true if this call set it
+     */
+    boolean setIfAbsent(String key, byte[] value, Duration ttl);
+
+    /**
+     * Deletes the key only if it still holds value, so a lock that expired and was taken
+     * by someone else is left alone.
+     */
+    void deleteIfEquals(String key, byte[] value);
+
+    void publish(String message);
+
+    /**
+     * Calls listener with every message published to the channel, including this store's own.
+     */
+    void subscribe(Consumer<String> listener);
+
+    default void close() {
+    }
+}
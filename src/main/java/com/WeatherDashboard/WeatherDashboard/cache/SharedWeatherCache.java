@@ -0,0 +1,278 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Second cache level shared by every app node, between each node's in-memory caches
+ * and the upstream APIs.
+ *
+ * WeatherService reads it when its own cache misses and writes every value it fetches
+ * to it, so a location is fetched about once per ttl across the cluster instead of once
+ * per node. A node that misses both levels takes a short lock on the key before
+ * fetching; nodes that miss meanwhile poll for the winner's value rather than fetching
+ * too, and only fetch themselves if nothing shows up within lockWait.
+ *
+ * Every write publishes an invalidation message naming the key. The other nodes drop
+ * their in-memory copy, so their next read picks up the new value from here.
+ *
+ * The tier is best effort: when the store fails, reads count as misses, writes are
+ * skipped, and the tier is bypassed for errorBackoff so a dead Redis costs one timeout
+ * every few seconds rather than one per request.
+ */
+public class SharedWeatherCache {
+    private static final Logger log = LoggerFactory.getLogger(SharedWeatherCache.class);
+
+    public static final String CURRENT = "current";
+    public static final String FORECAST = "forecast";
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final SharedStore store;
+    private final String keyPrefix;
+    private final Duration retainAfterExpiry;
+    private final Duration lockTtl;
+    private final Duration lockWait;
+    private final Duration errorBackoff;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final ConditionRegistry conditionRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong lockSequence = new AtomicLong();
+    private final List<BiConsumer<String, String>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private volatile long bypassUntil = System.nanoTime();
+
+    /**
+     * @param retainAfterExpiry how long entries stay in the store after they expire, so a
+     *                          node can still serve them while upstream rejects calls
+     * @param lockTtl           how long a fetch lock is held at most if its node dies
+     * @param lockWait          how long other nodes wait for the lock holder's value
+     * @param conditionRegistry where the conditions of forecasts read back are interned
+     */
+    public SharedWeatherCache(SharedStore store,
+                              String keyPrefix,
+                              Duration retainAfterExpiry,
+                              Duration lockTtl,
+                              Duration lockWait,
+                              Duration errorBackoff,
+                              Clock clock,
+                              MeterRegistry meterRegistry,
+                              ConditionRegistry conditionRegistry) {
+        this.store = store;
+        this.keyPrefix = keyPrefix;
+        this.retainAfterExpiry = retainAfterExpiry;
+        this.lockTtl = lockTtl;
+        this.lockWait = lockWait;
+        this.errorBackoff = errorBackoff;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.conditionRegistry = conditionRegistry;
+        if (store != null) {
+            store.subscribe(this::onMessage);
+        }
+    }
+
+    /**
+     * A tier that stores nothing and fetches straight away, for single-node deployments.
+     */
+    public static SharedWeatherCache disabled() {
+        return new SharedWeatherCache(null, "", Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO,
+                Clock.systemUTC(), null, ConditionRegistry.empty());
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Current weather stored by any node, including one that expired less than
+     * retainAfterExpiry ago; callers check expiresAt.
+     */
+    public WeatherCodec.Entry<WeatherDTO> getCurrent(String key) {
+        return read(CURRENT, key, WeatherCodec::decodeCurrent);
+    }
+
+    public void putCurrent(String key, CachedValue<WeatherDTO> value) {
+        write(CURRENT, key, value.expiresAt(), () -> WeatherCodec.encodeCurrent(value));
+    }
+
+    /**
+     * The widest forecast horizon stored for the location, like {@link #getCurrent}.
+     */
+    public WeatherCodec.Entry<ForecastDTO> getForecast(String key) {
+        return read(FORECAST, key, bytes -> WeatherCodec.decodeForecast(bytes, conditionRegistry));
+    }
+
+    public void putForecast(String key, int days, CachedValue<ForecastDTO> value) {
+        write(FORECAST, key, value.expiresAt(), () -> WeatherCodec.encodeForecast(value, days));
+    }
+
+    /**
+     * Runs fetch on one node at a time per key. While another node holds the lock,
+     * recheck is polled until it returns a value or lockWait runs out, and then this
+     * node fetches anyway.
+     */
+    public <T> T fetchOnce(String cache, String key, Supplier<T> recheck, Supplier<T> fetch) {
+        if (!available()) {
+            return fetch.get();
+        }
+        String lockKey = keyPrefix + "lock|" + cache + "|" + key;
+        byte[] token = (nodeId + ":" + lockSequence.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+        boolean locked;
+        try {
+            locked = store.setIfAbsent(lockKey, token, lockTtl);
+        } catch (RuntimeException e) {
+            failed("lock", e);
+            return fetch.get();
+        }
+        if (locked) {
+            locks("acquired").increment();
+            try {
+                // The previous holder may have stored the value just before releasing the lock
+                T stored = recheck.get();
+                return stored != null ? stored : fetch.get();
+            } finally {
+                try {
+                    store.deleteIfEquals(lockKey, token);
+                } catch (RuntimeException e) {
+                    // It expires after lockTtl anyway
+                    failed("unlock", e);
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        while (deadline - System.nanoTime() > 0) {
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            T value = recheck.get();
+            if (value != null) {
+                locks("waited").increment();
+                return value;
+            }
+        }
+        locks("timed_out").increment();
+        return fetch.get();
+    }
+
+    /**
+     * Called with (cache, key) when another node has stored a newer value for the key.
+     */
+    public void onInvalidate(BiConsumer<String, String> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    public void close() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private <V> WeatherCodec.Entry<V> read(String cache, String key, Function<byte[], WeatherCodec.Entry<V>> decoder) {
+        if (!available()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = store.get(keyPrefix + cache + "|" + key);
+        } catch (RuntimeException e) {
+            failed("read", e);
+            reads(cache, "error").increment();
+            return null;
+        }
+        WeatherCodec.Entry<V> entry = null;
+        if (bytes != null) {
+            try {
+                entry = decoder.apply(bytes);
+            } catch (IllegalArgumentException e) {
+                // Written by a node with another format version during a rolling deploy
+                log.debug("Ignoring unreadable shared cache entry {}: {}", key, e.getMessage());
+            }
+        }
+        boolean fresh = entry != null && clock.instant().isBefore(entry.expiresAt());
+        reads(cache, fresh ? "hit" : "miss").increment();
+        return entry;
+    }
+
+    private void write(String cache, String key, Instant expiresAt, Supplier<byte[]> encoder) {
+        if (!available()) {
+            return;
+        }
+        Duration ttl = Duration.between(clock.instant(), expiresAt).plus(retainAfterExpiry);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        try {
+            store.set(keyPrefix + cache + "|" + key, encoder.get(), ttl);
+            store.publish(cache + "|" + nodeId + "|" + key);
+        } catch (RuntimeException e) {
+            failed("write", e);
+        }
+    }
+
+    private void onMessage(String message) {
+        // cache|node|key; the key goes last because it may itself contain '|'
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || parts[1].equals(nodeId)) {
+            return;
+        }
+        Counter.builder("weather.cache.shared.invalidations")
+                .description("Local cache entries dropped because another node stored a newer value")
+                .tag("cache", parts[0])
+                .register(meterRegistry)
+                .increment();
+        for (BiConsumer<String, String> listener : invalidationListeners) {
+            listener.accept(parts[0], parts[2]);
+        }
+    }
+
+    private boolean available() {
+        return store != null && System.nanoTime() - bypassUntil >= 0;
+    }
+
+    private void failed(String operation, RuntimeException e) {
+        bypassUntil = System.nanoTime() + errorBackoff.toNanos();
+        Counter.builder("weather.cache.shared.errors")
+                .description("Shared cache operations that failed; the tier is bypassed for a while after each")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Shared cache {} failed, bypassing it for {}: {}", operation, errorBackoff, e.getMessage());
+    }
+
+    private Counter reads(String cache, String result) {
+        return Counter.builder("weather.cache.shared.reads")
+                .description("Shared cache reads; a hit is a value that has not expired")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter locks(String outcome) {
+        return Counter.builder("weather.cache.shared.locks")
+                .description("Cluster-wide fetch locks: acquired, or waited for another node's value")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
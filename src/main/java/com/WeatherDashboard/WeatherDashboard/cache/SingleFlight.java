@@ -0,0 +1,64 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one call. The first caller runs
+ * the loader; callers arriving while it is in flight wait for and share its result,
+ * or its exception. Nothing is kept once the call completes, so this adds no staleness.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            collapsed.incrementAndGet();
+            return await(existing);
+        }
+
+        leaders.incrementAndGet();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public CoalescingStats stats() {
+        return new CoalescingStats(leaders.get(), collapsed.get());
+    }
+
+    // Rethrow the leader's exception as-is rather than wrapped in CompletionException
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache with a fixed time-to-live per entry.
+ * Once maxSize is reached an expired entry among the least recently used few is
+ * evicted, or else the least recently used one.
+ * Expired entries stay until they are evicted, so {@link #getStale} can still
+ * return them while the upstream is unavailable.
+ */
+public class TtlCache<K, V> {
+
+    // Entries checked for expiry before evicting, so a put into a full cache stays O(1)
+    private static final int EXPIRED_SCAN_LIMIT = 8;
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public TtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public TtlCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        // Access order so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        CachedValue<V> entry = getEntry(key, Duration.ZERO);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Looks a key up like {@link #get(Object)}, but also returns values that expired
+     * less than maxStale ago (flagged as stale) along with when they were fetched.
+     * Only fresh values count as hits.
+     */
+    public synchronized CachedValue<V> getEntry(K key, Duration maxStale) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = clock.millis();
+        if (entry.isExpired(now)) {
+            misses.incrementAndGet();
+            return now < entry.expiresAt() + maxStale.toMillis() ? entry.toCachedValue(true) : null;
+        }
+        hits.incrementAndGet();
+        return entry.toCachedValue(false);
+    }
+
+    /**
+     * Returns the value even if it has expired, as long as it expired less than maxStale
+     * ago. Meant as a fallback when the value cannot be refreshed; does not count as a hit.
+     */
+    public synchronized V getStale(K key, Duration maxStale) {
+        CachedValue<V> entry = peek(key, maxStale);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Like {@link #getStale} but with the entry's timestamps; does not touch the stats.
+     */
+    public synchronized CachedValue<V> peek(K key, Duration maxStale) {
+        Entry<V> entry = entries.get(key);
+        long now = clock.millis();
+        if (entry == null || now >= entry.expiresAt() + maxStale.toMillis()) {
+            return null;
+        }
+        return entry.toCachedValue(entry.isExpired(now));
+    }
+
+    public synchronized CachedValue<V> put(K key, V value) {
+        long now = clock.millis();
+        return store(key, new Entry<>(value, now, now + ttl.toMillis()));
+    }
+
+    /**
+     * Stores a value that expires at a fixed instant instead of after the default ttl.
+     */
+    public synchronized CachedValue<V> put(K key, V value, Instant expiresAt) {
+        return store(key, new Entry<>(value, clock.millis(), expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Stores a value fetched elsewhere, such as by another node, keeping its timestamps.
+     * The result is flagged stale if the value has already expired.
+     */
+    public synchronized CachedValue<V> put(K key, V value, Instant fetchedAt, Instant expiresAt) {
+        Entry<V> entry = new Entry<>(value, fetchedAt.toEpochMilli(), expiresAt.toEpochMilli());
+        store(key, entry);
+        return entry.toCachedValue(entry.isExpired(clock.millis()));
+    }
+
+    /**
+     * Returns the cached value or loads it. The loader runs outside the cache lock,
+     * so a slow upstream call never blocks readers of other keys.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), expirations.get(), size());
+    }
+
+    private CachedValue<V> store(K key, Entry<V> entry) {
+        entries.put(key, entry);
+        evictIfNeeded();
+        return entry.toCachedValue(false);
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        // Drop an expired entry near the least recently used end, then fall back to the LRU one
+        long now = clock.millis();
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        for (int scanned = 0; scanned < EXPIRED_SCAN_LIMIT && it.hasNext() && entries.size() > maxSize; scanned++) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+                expirations.incrementAndGet();
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > maxSize) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private record Entry<V>(V value, long fetchedAt, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        CachedValue<V> toCachedValue(boolean stale) {
+            return new CachedValue<>(value, Instant.ofEpochMilli(fetchedAt), Instant.ofEpochMilli(expiresAt), stale);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of cached weather for the shared tier: a format version, fetchedAt and
+ * expiresAt, then the DTO fields in declaration order with ints as varints. Each string
+ * is written once per value and referenced by index after that, so the condition texts
+ * and icons repeated across a forecast's hours take a byte or two each. A 4-day forecast
+ * ends up about a quarter of its JSON size.
+ */
+public final class WeatherCodec {
+
+    private static final int VERSION = 1;
+
+    /**
+     * A decoded value with the timestamps it was stored with.
+     * @param days forecast horizon; 0 for current weather
+     */
+    public record Entry<V>(V value, int days, Instant fetchedAt, Instant expiresAt) {}
+
+    private WeatherCodec() {
+    }
+
+    public static byte[] encodeCurrent(CachedValue<WeatherDTO> cached) {
+        return encode(cached, 0, (weather, out) -> writeWeather(weather, out));
+    }
+
+    public static Entry<WeatherDTO> decodeCurrent(byte[] bytes) {
+        return decode(bytes, WeatherCodec::readWeather);
+    }
+
+    public static byte[] encodeForecast(CachedValue<ForecastDTO> cached, int days) {
+        return encode(cached, days, (forecast, out) -> writeForecast(forecast, out));
+    }
+
+    /**
+     * @param conditions where decoded conditions are interned, so they share instances with parsed ones
+     */
+    public static Entry<ForecastDTO> decodeForecast(byte[] bytes, ConditionRegistry conditions) {
+        return decode(bytes, in -> readForecast(in, conditions));
+    }
+
+    private static <V> byte[] encode(CachedValue<V> cached, int days, Writer<V> body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        Output out = new Output(bytes);
+        try {
+            out.writeByte(VERSION);
+            out.writeLong(cached.fetchedAt().toEpochMilli());
+            out.writeLong(cached.expiresAt().toEpochMilli());
+            out.writeVarInt(days);
+            body.write(cached.value(), out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <V> Entry<V> decode(byte[] bytes, Reader<V> body) {
+        Input in = new Input(new ByteArrayInputStream(bytes));
+        try {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported cache entry version " + version);
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(in.readLong());
+            Instant expiresAt = Instant.ofEpochMilli(in.readLong());
+            int days = in.readVarInt();
+            return new Entry<>(body.read(in), days, fetchedAt, expiresAt);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt cache entry", e);
+        }
+    }
+
+    private static void writeWeather(WeatherDTO weather, Output out) throws IOException {
+        out.writeString(weather.city());
+        out.writeString(weather.region());
+        out.writeString(weather.country());
+        out.writeDouble(weather.tempF());
+        out.writeDouble(weather.tempC());
+        out.writeString(weather.condition());
+        out.writeVarInt(weather.humidity());
+        out.writeDouble(weather.windMph());
+        out.writeDouble(weather.lat());
+        out.writeDouble(weather.lon());
+    }
+
+    private static WeatherDTO readWeather(Input in) throws IOException {
+        return new WeatherDTO(in.readString(), in.readString(), in.readString(), in.readDouble(), in.readDouble(),
+                in.readString(), in.readVarInt(), in.readDouble(), in.readDouble(), in.readDouble());
+    }
+
+    private static void writeForecast(ForecastDTO forecast, Output out) throws IOException {
+        out.writeString(forecast.city());
+        out.writeString(forecast.region());
+        out.writeString(forecast.country());
+        out.writeDouble(forecast.lat());
+        out.writeDouble(forecast.lon());
+        out.writeVarInt(forecast.forecast().size());
+        for (ForecastDTO.ForecastDay day : forecast.forecast()) {
+            out.writeString(day.date());
+            writeSummary(day.day(), out);
+            // Count + 1, with 0 for no list
+            out.writeVarInt(day.hours() == null ? 0 : day.hours().size() + 1);
+            if (day.hours() == null) {
+                continue;
+            }
+            for (ForecastDTO.HourForecast hour : day.hours()) {
+                out.writeString(hour.time());
+                out.writeDouble(hour.tempF());
+                out.writeDouble(hour.tempC());
+                writeCondition(hour.condition(), out);
+                out.writeDouble(hour.windMph());
+                out.writeVarInt(hour.humidity());
+                out.writeVarInt(hour.chanceOfRain());
+                out.writeVarInt(hour.chanceOfSnow());
+            }
+        }
+    }
+
+    private static void writeSummary(ForecastDTO.DayForecast summary, Output out) throws IOException {
+        out.writeBoolean(summary != null);
+        if (summary != null) {
+            out.writeDouble(summary.maxTempF());
+            out.writeDouble(summary.maxTempC());
+            out.writeDouble(summary.minTempF());
+            out.writeDouble(summary.minTempC());
+            out.writeDouble(summary.avgTempF());
+            out.writeDouble(summary.avgTempC());
+            out.writeDouble(summary.maxWindMph());
+            out.writeDouble(summary.totalPrecipIn());
+            out.writeDouble(summary.totalPrecipMm());
+            out.writeVarInt(summary.avgHumidity());
+            writeCondition(summary.condition(), out);
+            out.writeVarInt(summary.chanceOfRain());
+            out.writeVarInt(summary.chanceOfSnow());
+        }
+    }
+
+    private static ForecastDTO readForecast(Input in, ConditionRegistry conditions) throws IOException {
+        String city = in.readString();
+        String region = in.readString();
+        String country = in.readString();
+        double lat = in.readDouble();
+        double lon = in.readDouble();
+        int dayCount = in.readVarInt();
+        List<ForecastDTO.ForecastDay> days = new ArrayList<>(dayCount);
+        for (int d = 0; d < dayCount; d++) {
+            String date = in.readString();
+            ForecastDTO.DayForecast summary = readSummary(in, conditions);
+            int hourCount = in.readVarInt() - 1;
+            if (hourCount < 0) {
+                days.add(new ForecastDTO.ForecastDay(date, summary, null));
+                continue;
+            }
+            List<ForecastDTO.HourForecast> hours = new ArrayList<>(hourCount);
+            for (int h = 0; h < hourCount; h++) {
+                hours.add(new ForecastDTO.HourForecast(in.readString(), in.readDouble(), in.readDouble(),
+                        readCondition(in, conditions), in.readDouble(), in.readVarInt(), in.readVarInt(), in.readVarInt()));
+            }
+            days.add(new ForecastDTO.ForecastDay(date, summary, hours));
+        }
+        return new ForecastDTO(city, region, country, lat, lon, days);
+    }
+
+    private static ForecastDTO.DayForecast readSummary(Input in, ConditionRegistry conditions) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new ForecastDTO.DayForecast(
+                in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readVarInt(),
+                readCondition(in, conditions), in.readVarInt(), in.readVarInt());
+    }
+
+    private static void writeCondition(ForecastDTO.Condition condition, Output out) throws IOException {
+        out.writeBoolean(condition != null);
+        if (condition != null) {
+            out.writeString(condition.text());
+            out.writeString(condition.icon());
+            out.writeVarInt(condition.code());
+        }
+    }
+
+    private static ForecastDTO.Condition readCondition(Input in, ConditionRegistry conditions) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return conditions.intern(in.readString(), in.readString(), in.readVarInt());
+    }
+
+    @FunctionalInterface
+    private interface Writer<V> {
+        void write(V value, Output out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<V> {
+        V read(Input in) throws IOException;
+    }
+
+    /**
+     * Strings are 0 for null, 1 followed by the string the first time, and index + 2 after that.
+     */
+    private static final class Output extends DataOutputStream {
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Output(ByteArrayOutputStream bytes) {
+            super(bytes);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index + 2);
+                return;
+            }
+            strings.put(value, strings.size());
+            writeVarInt(1);
+            writeUTF(value);
+        }
+
+        // Zigzag so the odd negative value still fits in a few bytes
+        void writeVarInt(int value) throws IOException {
+            int zigzag = (value << 1) ^ (value >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                writeByte((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            writeByte(zigzag);
+        }
+    }
+
+    private static final class Input extends DataInputStream {
+        private final List<String> strings = new ArrayList<>();
+
+        Input(ByteArrayInputStream bytes) {
+            super(bytes);
+        }
+
+        String readString() throws IOException {
+            int tag = readVarInt();
+            if (tag == 0) {
+                return null;
+            }
+            if (tag == 1) {
+                String value = readUTF();
+                strings.add(value);
+                return value;
+            }
+            if (tag - 2 >= strings.size()) {
+                throw new IOException("String reference " + (tag - 2) + " out of range");
+            }
+            return strings.get(tag - 2);
+        }
+
+        int readVarInt() throws IOException {
+            int zigzag = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readUnsignedByte();
+                zigzag |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+}
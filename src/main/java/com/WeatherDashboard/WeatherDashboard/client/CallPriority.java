@@ -0,0 +1,45 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Who an upstream call is for, used by QuotaGovernor to order callers waiting for quota.
+ * Calls are INTERACTIVE unless the calling thread is running background work; since the
+ * priority lives in a thread local, work handed to an executor has to be wrapped.
+ */
+public enum CallPriority {
+    // Declared in queue order: an earlier constant is served first
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final ThreadLocal<CallPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static CallPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The task, running with this priority on whichever thread executes it.
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            CallPriority previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public void run(Runnable task) {
+        CallPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
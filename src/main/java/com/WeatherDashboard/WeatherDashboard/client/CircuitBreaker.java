@@ -0,0 +1,169 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Count-based circuit breaker for one upstream provider.
+ *
+ * The outcomes of the last windowSize calls are kept in a ring buffer. Once at least
+ * minimumCalls have been recorded and either the failure rate or the slow-call rate
+ * reaches its threshold, the breaker opens and rejects calls for openDuration. It then
+ * lets halfOpenCalls trial calls through: if they all succeed quickly it closes again,
+ * otherwise it reopens.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * @param failureRateThreshold  percentage of failed calls in the window that opens the breaker
+     * @param slowCallRateThreshold percentage of calls slower than slowCallThreshold that opens it
+     */
+    public record Settings(int windowSize,
+                           int minimumCalls,
+                           double failureRateThreshold,
+                           Duration slowCallThreshold,
+                           double slowCallRateThreshold,
+                           Duration openDuration,
+                           int halfOpenCalls) {
+        public static Settings defaults() {
+            return new Settings(20, 10, 50, Duration.ofSeconds(3), 80, Duration.ofSeconds(30), 3);
+        }
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final Settings settings;
+    private final Clock clock;
+    private final byte[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(Settings settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(Settings settings, Clock clock) {
+        if (settings.windowSize() < 1 || settings.minimumCalls() < 1 || settings.halfOpenCalls() < 1) {
+            throw new IllegalArgumentException("windowSize, minimumCalls and halfOpenCalls must be at least 1");
+        }
+        this.settings = settings;
+        this.clock = clock;
+        this.window = new byte[settings.windowSize()];
+    }
+
+    /**
+     * @return true if the call may proceed; the caller must then report exactly one of
+     *         onSuccess, onFailure or onIgnored
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < settings.openDuration().toMillis()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = settings.halfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(Duration elapsed) {
+        record(false, isSlow(elapsed));
+    }
+
+    public synchronized void onFailure(Duration elapsed) {
+        record(true, isSlow(elapsed));
+    }
+
+    /**
+     * The permitted call ended without saying anything about the provider's health
+     * (e.g. it never got sent), so it only gives back a half-open trial slot.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized State state() {
+        // Report HALF_OPEN as soon as the open period is over, not only after the next call
+        if (state == State.OPEN && clock.millis() - openedAt >= settings.openDuration().toMillis()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private boolean isSlow(Duration elapsed) {
+        return elapsed.compareTo(settings.slowCallThreshold()) >= 0;
+    }
+
+    private void record(boolean failed, boolean slow) {
+        switch (state) {
+            case OPEN -> {
+                // Permitted before the breaker opened; the window was reset when it did
+            }
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    open();
+                } else if (++halfOpenSuccesses >= settings.halfOpenCalls()) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == window.length) {
+                    byte evicted = window[next];
+                    failures -= evicted & FAILED;
+                    slowCalls -= (evicted & SLOW) >> 1;
+                } else {
+                    recorded++;
+                }
+                window[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+                failures += failed ? 1 : 0;
+                slowCalls += slow ? 1 : 0;
+                next = (next + 1) % window.length;
+
+                if (recorded >= settings.minimumCalls()
+                        && (failures * 100.0 / recorded >= settings.failureRateThreshold()
+                        || slowCalls * 100.0 / recorded >= settings.slowCallRateThreshold())) {
+                    open();
+                }
+            }
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.millis();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, (byte) 0);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
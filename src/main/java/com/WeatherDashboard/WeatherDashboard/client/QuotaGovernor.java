@@ -0,0 +1,303 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate limit and monthly budget for the API key of one upstream provider.
+ *
+ * A token bucket holds up to burst tokens and refills at perMinute tokens a minute; every
+ * call takes one. Callers that find it empty wait in a queue ordered by CallPriority, so
+ * an interactive request goes ahead of background work however long that has waited.
+ * Background calls also leave backgroundReserve of the bucket and of the monthly budget
+ * untouched, so a refresh job cannot use up what users need.
+ *
+ * A 429 from the provider empties the bucket and holds every call back for the response's
+ * Retry-After, or for a backoff that doubles on each consecutive 429 when there is none.
+ * The backoff resets on the next successful call.
+ */
+public class QuotaGovernor {
+
+    public enum Admission { ADMITTED, TIMED_OUT, MONTH_EXHAUSTED }
+
+    /**
+     * @param perMinute         sustained calls per minute, or 0 for no rate limit
+     * @param burst             calls that may go out back to back after a quiet period
+     * @param perMonth          calls per calendar month (UTC), or 0 for no budget
+     * @param backgroundReserve fraction of the bucket and monthly budget background calls may not use
+     * @param interactiveWait   longest an interactive call waits for a token before it is rejected
+     * @param backgroundWait    same for background calls
+     */
+    public record Settings(int perMinute,
+                           int burst,
+                           long perMonth,
+                           double backgroundReserve,
+                           Duration interactiveWait,
+                           Duration backgroundWait,
+                           Duration backoffBase,
+                           Duration backoffMax) {
+        public static Settings unlimited() {
+            return new Settings(0, 1, 0, 0, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(1), Duration.ofMinutes(1));
+        }
+    }
+
+    private final Settings settings;
+    private final Clock clock;
+    private final double tokensPerMilli;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private final int[] queued = new int[CallPriority.values().length];
+    private long sequence;
+
+    private double tokens;
+    private long refilledAt;
+    private long blockedUntil;
+    private int consecutiveThrottles;
+    private YearMonth month;
+    private long usedThisMonth;
+
+    public QuotaGovernor(Settings settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    public QuotaGovernor(Settings settings, Clock clock) {
+        if (settings.perMinute() > 0 && settings.burst() < 1) {
+            throw new IllegalArgumentException("burst must be at least 1 when perMinute is set");
+        }
+        this.settings = settings;
+        this.clock = clock;
+        this.tokensPerMilli = settings.perMinute() / 60_000.0;
+        this.tokens = settings.burst();
+        this.refilledAt = clock.millis();
+        this.month = currentMonth();
+    }
+
+    /**
+     * Takes a token if one is free right now and nobody of the same or higher priority
+     * is waiting for one. Never blocks.
+     */
+    public boolean tryAcquire(CallPriority priority) {
+        lock.lock();
+        try {
+            for (int p = 0; p <= priority.ordinal(); p++) {
+                if (queued[p] > 0) {
+                    return false;
+                }
+            }
+            if (!withinMonthlyBudget(priority) || millisUntilToken(priority) > 0) {
+                return false;
+            }
+            take();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a token, waiting up to the priority's wait limit behind earlier callers of
+     * the same priority and all callers of a higher one.
+     */
+    public Admission acquire(CallPriority priority) throws InterruptedException {
+        Duration maxWait = priority == CallPriority.INTERACTIVE ? settings.interactiveWait() : settings.backgroundWait();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        lock.lock();
+        try {
+            if (!withinMonthlyBudget(priority)) {
+                return Admission.MONTH_EXHAUSTED;
+            }
+            Waiter waiter = new Waiter(priority, sequence++);
+            waiters.add(waiter);
+            queued[priority.ordinal()]++;
+            try {
+                while (true) {
+                    long remaining = deadline - System.nanoTime();
+                    long untilToken = waiters.peek() == waiter ? millisUntilToken(priority) : -1;
+                    if (untilToken == 0) {
+                        // The budget may have been used up while we waited
+                        if (!withinMonthlyBudget(priority)) {
+                            return Admission.MONTH_EXHAUSTED;
+                        }
+                        take();
+                        return Admission.ADMITTED;
+                    }
+                    if (remaining <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    // Only the head of the queue can be woken by a refill; the rest wait for a signal
+                    changed.awaitNanos(untilToken > 0 ? Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(untilToken)) : remaining);
+                }
+            } finally {
+                waiters.remove(waiter);
+                queued[priority.ordinal()]--;
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a token that was taken for a call that was never sent.
+     */
+    public void refund() {
+        lock.lock();
+        try {
+            tokens = Math.min(settings.burst(), tokens + 1);
+            usedThisMonth = Math.max(0, usedThisMonth - 1);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveThrottles = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The provider answered 429. Holds all calls back for retryAfter, or for the next
+     * backoff step when the response did not say.
+     */
+    public void onThrottled(Duration retryAfter) {
+        lock.lock();
+        try {
+            consecutiveThrottles++;
+            Duration backoff = retryAfter;
+            if (backoff == null) {
+                long factor = 1L << Math.min(consecutiveThrottles - 1, 20);
+                backoff = settings.backoffBase().multipliedBy(factor);
+            }
+            if (backoff.compareTo(settings.backoffMax()) > 0) {
+                backoff = settings.backoffMax();
+            }
+            blockedUntil = Math.max(blockedUntil, clock.millis() + backoff.toMillis());
+            // Start refilling from empty once the backoff is over
+            tokens = 0;
+            refilledAt = blockedUntil;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean limitsRate() {
+        return settings.perMinute() > 0;
+    }
+
+    public boolean limitsMonth() {
+        return settings.perMonth() > 0;
+    }
+
+    public double availableTokens() {
+        lock.lock();
+        try {
+            refill(clock.millis());
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long remainingThisMonth() {
+        lock.lock();
+        try {
+            rollMonth();
+            return Math.max(0, settings.perMonth() - usedThisMonth);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(CallPriority priority) {
+        lock.lock();
+        try {
+            return queued[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Duration backoffRemaining() {
+        lock.lock();
+        try {
+            return Duration.ofMillis(Math.max(0, blockedUntil - clock.millis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 0 if a call of this priority may take a token now, otherwise roughly how long until it can.
+     */
+    private long millisUntilToken(CallPriority priority) {
+        long now = clock.millis();
+        if (now < blockedUntil) {
+            return blockedUntil - now;
+        }
+        if (!limitsRate()) {
+            return 0;
+        }
+        refill(now);
+        double floor = priority == CallPriority.INTERACTIVE ? 0 : settings.burst() * settings.backgroundReserve();
+        double missing = floor + 1 - tokens;
+        if (missing <= 0) {
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil(missing / tokensPerMilli));
+    }
+
+    private boolean withinMonthlyBudget(CallPriority priority) {
+        if (!limitsMonth()) {
+            return true;
+        }
+        rollMonth();
+        double share = priority == CallPriority.INTERACTIVE ? 1 : 1 - settings.backgroundReserve();
+        return usedThisMonth < settings.perMonth() * share;
+    }
+
+    private void take() {
+        if (limitsRate()) {
+            tokens -= 1;
+        }
+        usedThisMonth++;
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(settings.burst(), tokens + (now - refilledAt) * tokensPerMilli);
+            refilledAt = now;
+        }
+    }
+
+    private void rollMonth() {
+        YearMonth current = currentMonth();
+        if (!current.equals(month)) {
+            month = current;
+            usedThisMonth = 0;
+        }
+    }
+
+    private YearMonth currentMonth() {
+        return YearMonth.from(clock.instant().atZone(ZoneOffset.UTC));
+    }
+
+    private record Waiter(CallPriority priority, long sequence) implements Comparable<Waiter> {
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Bulkhead, circuit breaker and quota settings for one upstream provider.
+ * Each key is read as upstream.&lt;provider&gt;.&lt;key&gt; first, then upstream.&lt;key&gt;,
+ * so providers share defaults but any of them can be tuned on its own.
+ */
+public record ResilienceSettings(int maxConcurrency, Duration maxWait, CircuitBreaker.Settings circuitBreaker,
+                                 QuotaGovernor.Settings quota) {
+
+    public ResilienceSettings(int maxConcurrency, Duration maxWait, CircuitBreaker.Settings circuitBreaker) {
+        this(maxConcurrency, maxWait, circuitBreaker, QuotaGovernor.Settings.unlimited());
+    }
+
+    public static ResilienceSettings defaults() {
+        return new ResilienceSettings(20, Duration.ofMillis(50), CircuitBreaker.Settings.defaults());
+    }
+
+    public static ResilienceSettings from(Environment environment, String provider) {
+        ResilienceSettings defaults = defaults();
+        CircuitBreaker.Settings breaker = defaults.circuitBreaker();
+        QuotaGovernor.Settings quota = defaults.quota();
+        return new ResilienceSettings(
+                property(environment, provider, "max-concurrency", Integer.class, defaults.maxConcurrency()),
+                Duration.ofMillis(property(environment, provider, "bulkhead-wait-ms", Long.class, defaults.maxWait().toMillis())),
+                new CircuitBreaker.Settings(
+                        property(environment, provider, "circuit.window-size", Integer.class, breaker.windowSize()),
+                        property(environment, provider, "circuit.minimum-calls", Integer.class, breaker.minimumCalls()),
+                        property(environment, provider, "circuit.failure-rate-threshold", Double.class, breaker.failureRateThreshold()),
+                        Duration.ofMillis(property(environment, provider, "circuit.slow-call-threshold-ms", Long.class,
+                                breaker.slowCallThreshold().toMillis())),
+                        property(environment, provider, "circuit.slow-call-rate-threshold", Double.class, breaker.slowCallRateThreshold()),
+                        Duration.ofMillis(property(environment, provider, "circuit.open-ms", Long.class,
+                                breaker.openDuration().toMillis())),
+                        property(environment, provider, "circuit.half-open-calls", Integer.class, breaker.halfOpenCalls())),
+                new QuotaGovernor.Settings(
+                        property(environment, provider, "quota.per-minute", Integer.class, quota.perMinute()),
+                        property(environment, provider, "quota.burst", Integer.class, quota.burst()),
+                        property(environment, provider, "quota.per-month", Long.class, quota.perMonth()),
+                        property(environment, provider, "quota.background-reserve", Double.class, quota.backgroundReserve()),
+                        Duration.ofMillis(property(environment, provider, "quota.interactive-wait-ms", Long.class,
+                                quota.interactiveWait().toMillis())),
+                        Duration.ofMillis(property(environment, provider, "quota.background-wait-ms", Long.class,
+                                quota.backgroundWait().toMillis())),
+                        Duration.ofMillis(property(environment, provider, "quota.backoff-base-ms", Long.class,
+                                quota.backoffBase().toMillis())),
+                        Duration.ofMillis(property(environment, provider, "quota.backoff-max-ms", Long.class,
+                                quota.backoffMax().toMillis()))));
+    }
+
+    private static <T> T property(Environment environment, String provider, String key, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("upstream." + key, type, defaultValue);
+        return environment.getProperty("upstream." + provider + "." + key, type, shared);
+    }
+}
@@ -0,0 +1,13 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Turns an upstream response body into a value. Implementations own the stream
+ * only for the duration of the call and must not close it.
+ */
+@FunctionalInterface
+public interface ResponseParser<T> {
+    T parse(InputStream body) throws IOException;
+}
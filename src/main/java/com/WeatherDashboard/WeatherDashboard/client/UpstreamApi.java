@@ -0,0 +1,31 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+/**
+ * The upstream endpoints we call, used to tag metrics per provider and operation.
+ */
+public enum UpstreamApi {
+    WEATHERAPI_CURRENT("weatherapi", "current"),
+    WEATHERAPI_FORECAST("weatherapi", "forecast"),
+    OPENWEATHERMAP_CURRENT("openweathermap", "current"),
+    OPENWEATHERMAP_FIND("openweathermap", "find");
+
+    private final String provider;
+    private final String operation;
+
+    UpstreamApi(String provider, String operation) {
+        this.provider = provider;
+        this.operation = operation;
+    }
+
+    public String provider() {
+        return provider;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public String tag() {
+        return provider + "." + operation;
+    }
+}
@@ -0,0 +1,432 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Single shared HTTP client for all upstream weather APIs.
+ * The JDK client keeps a keep-alive connection pool per host and negotiates
+ * HTTP/2 where the server supports it, so repeated calls skip the TCP/TLS handshake.
+ * Every call is timed per {@link UpstreamApi}, with failures counted by cause.
+ *
+ * Each provider also gets its own bulkhead (a cap on concurrent calls) and circuit
+ * breaker, so a slow or failing provider cannot tie up threads needed for the other
+ * one or for requests that never go upstream. Rejected calls fail fast with
+ * {@link UpstreamRejectedException}.
+ *
+ * Before either, a call waits for the provider's {@link QuotaGovernor}, which keeps the
+ * API key inside its per-minute and monthly quotas, serves interactive calls ahead of
+ * background ones ({@link CallPriority}) and backs off when the provider answers 429.
+ */
+@Component
+public class UpstreamClient {
+
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {};
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Duration readTimeout;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<UpstreamApi, AtomicInteger> inFlight = new EnumMap<>(UpstreamApi.class);
+    private final Map<String, Guard> guards = new HashMap<>();
+
+    @Autowired
+    public UpstreamClient(@Value("${upstream.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                          @Value("${upstream.http.read-timeout-ms:5000}") long readTimeoutMs,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          Environment environment) {
+        this(Duration.ofMillis(connectTimeoutMs), Duration.ofMillis(readTimeoutMs), objectMapper, meterRegistry,
+                provider -> ResilienceSettings.from(environment, provider));
+    }
+
+    public UpstreamClient(Duration connectTimeout, Duration readTimeout, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(connectTimeout, readTimeout, objectMapper, meterRegistry, provider -> ResilienceSettings.defaults());
+    }
+
+    public UpstreamClient(Duration connectTimeout, Duration readTimeout, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry, Function<String, ResilienceSettings> settingsByProvider) {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        this.readTimeout = readTimeout;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (UpstreamApi api : UpstreamApi.values()) {
+            AtomicInteger calls = new AtomicInteger();
+            inFlight.put(api, calls);
+            Gauge.builder("weather.upstream.in_flight", calls, AtomicInteger::get)
+                    .description("Upstream calls currently waiting for a response")
+                    .tag("api", api.tag())
+                    .register(meterRegistry);
+            guards.computeIfAbsent(api.provider(), provider -> new Guard(provider, settingsByProvider.apply(provider)));
+        }
+    }
+
+    public Map<String, Object> getJson(UpstreamApi api, String url) {
+        return get(api, url, body -> objectMapper.readValue(body, JSON_MAP));
+    }
+
+    public CompletableFuture<Map<String, Object>> getJsonAsync(UpstreamApi api, String url) {
+        return getAsync(api, url, body -> objectMapper.readValue(body, JSON_MAP));
+    }
+
+    /**
+     * Blocking call that streams the body straight into the parser.
+     */
+    public <T> T get(UpstreamApi api, String url, ResponseParser<T> parser) {
+        Guard guard = guards.get(api.provider());
+        admit(api, guard, CallPriority.current());
+        enter(api, guard);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long start = System.nanoTime();
+        AtomicInteger calls = inFlight.get(api);
+        calls.incrementAndGet();
+        RuntimeException error = null;
+        try {
+            T result = send(url, parser);
+            record(api, sample, null);
+            return result;
+        } catch (RuntimeException e) {
+            // Includes whatever the parser throws, so a bad body counts against the provider
+            error = e;
+            record(api, sample, e);
+            throw e;
+        } finally {
+            calls.decrementAndGet();
+            guard.release(error, start);
+        }
+    }
+
+    /**
+     * Non-blocking call. The returned future completes exceptionally with an
+     * {@link UpstreamException} on transport errors or non-2xx responses.
+     */
+    public <T> CompletableFuture<T> getAsync(UpstreamApi api, String url, ResponseParser<T> parser) {
+        Guard guard = guards.get(api.provider());
+        CallPriority priority = CallPriority.current();
+        if (guard.quota.tryAcquire(priority)) {
+            return sendGuarded(api, guard, url, parser);
+        }
+        // Wait for quota on a virtual thread rather than blocking the caller
+        return CompletableFuture.runAsync(() -> admit(api, guard, priority), executor)
+                .thenCompose(admitted -> sendGuarded(api, guard, url, parser));
+    }
+
+    private <T> CompletableFuture<T> sendGuarded(UpstreamApi api, Guard guard, String url, ResponseParser<T> parser) {
+        try {
+            enter(api, guard);
+        } catch (UpstreamException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long start = System.nanoTime();
+        AtomicInteger calls = inFlight.get(api);
+        calls.incrementAndGet();
+        CompletableFuture<T> response;
+        try {
+            response = sendAsync(url, parser);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((result, error) -> {
+            calls.decrementAndGet();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            record(api, sample, cause);
+            guard.release(cause, start);
+        });
+    }
+
+    public CircuitBreaker.State circuitState(String provider) {
+        return guards.get(provider).breaker.state();
+    }
+
+    /**
+     * Takes a token from the provider's quota, waiting as long as the priority allows,
+     * or throws UpstreamRejectedException.
+     */
+    private void admit(UpstreamApi api, Guard guard, CallPriority priority) {
+        QuotaGovernor.Admission admission;
+        try {
+            admission = guard.quota.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted waiting for " + api.provider() + " quota", e);
+        }
+        switch (admission) {
+            case TIMED_OUT -> throw reject(api, UpstreamRejectedException.QUOTA_WAIT_TIMEOUT,
+                    "no quota for a " + priority.name().toLowerCase(Locale.ROOT) + " call within its wait limit");
+            case MONTH_EXHAUSTED -> throw reject(api, UpstreamRejectedException.QUOTA_EXHAUSTED, "monthly quota used up");
+            case ADMITTED -> { }
+        }
+    }
+
+    /**
+     * Takes a circuit breaker permit and a bulkhead slot for the api's provider, or
+     * gives the quota token back and throws UpstreamRejectedException without touching
+     * the network.
+     */
+    private void enter(UpstreamApi api, Guard guard) {
+        if (!guard.breaker.tryAcquire()) {
+            guard.quota.refund();
+            throw reject(api, UpstreamRejectedException.CIRCUIT_OPEN, "circuit breaker is open");
+        }
+        boolean permitted;
+        try {
+            permitted = guard.bulkhead.tryAcquire(guard.maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            guard.breaker.onIgnored();
+            guard.quota.refund();
+            throw new UpstreamException("Interrupted waiting for " + api.provider() + " bulkhead", e);
+        }
+        if (!permitted) {
+            guard.breaker.onIgnored();
+            guard.quota.refund();
+            throw reject(api, UpstreamRejectedException.BULKHEAD_FULL, "too many concurrent calls");
+        }
+    }
+
+    private UpstreamRejectedException reject(UpstreamApi api, String reason, String detail) {
+        Counter.builder("weather.upstream.rejected")
+                .description("Upstream calls rejected without being sent")
+                .tag("provider", api.provider())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new UpstreamRejectedException(api.tag() + " call rejected: " + detail, reason);
+    }
+
+    private <T> T send(String url, ResponseParser<T> parser) {
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request(url), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted calling " + describe(url), e);
+        } catch (IOException e) {
+            throw new UpstreamException("Request to " + describe(url) + " failed: " + e.getMessage(), e);
+        }
+
+        try (InputStream body = response.body()) {
+            checkStatus(url, response);
+            return parser.parse(body);
+        } catch (IOException e) {
+            throw new UpstreamException("Could not read response from " + describe(url) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private <T> CompletableFuture<T> sendAsync(String url, ResponseParser<T> parser) {
+        return httpClient.sendAsync(request(url), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        throw new UpstreamException("Request to " + describe(url) + " failed: " + cause.getMessage(), cause);
+                    }
+                    checkStatus(url, response);
+                    try {
+                        return parser.parse(new ByteArrayInputStream(response.body()));
+                    } catch (IOException e) {
+                        throw new UpstreamException("Could not read response from " + describe(url) + ": " + e.getMessage(), e);
+                    }
+                });
+    }
+
+    private void record(UpstreamApi api, Timer.Sample sample, Throwable error) {
+        sample.stop(Timer.builder("weather.upstream.requests")
+                .description("Latency of upstream weather API calls")
+                .tag("api", api.tag())
+                .tag("outcome", error == null ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        if (error != null) {
+            Counter.builder("weather.upstream.errors")
+                    .description("Failed upstream weather API calls by cause")
+                    .tag("api", api.tag())
+                    .tag("cause", errorCause(error))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    static String errorCause(Throwable error) {
+        if (error instanceof UpstreamRejectedException rejected) {
+            return rejected.getReason();
+        }
+        if (error instanceof UpstreamException upstream && upstream.getStatusCode() > 0) {
+            int status = upstream.getStatusCode();
+            if (status == 429) {
+                return "rate_limited";
+            }
+            return status >= 500 ? "http_5xx" : "http_4xx";
+        }
+        // Anything not wrapped as an UpstreamException came from reading the response into objects
+        if (!(error instanceof UpstreamException)) {
+            return "parse";
+        }
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof JsonProcessingException) {
+            return "parse";
+        }
+        if (cause instanceof InterruptedException) {
+            return "interrupted";
+        }
+        return "io";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private HttpRequest request(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static void checkStatus(String url, HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            throw new UpstreamException(describe(url) + " returned HTTP " + status, status,
+                    retryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+        }
+    }
+
+    // Only the delta-seconds form; providers do not send the HTTP-date one
+    static Duration retryAfter(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            long seconds = Long.parseLong(header.trim());
+            return seconds >= 0 ? Duration.ofSeconds(seconds) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Strip the query string so API keys never end up in error messages
+    private static String describe(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    /**
+     * Quota, bulkhead and circuit breaker of one provider.
+     */
+    private final class Guard {
+        private final CircuitBreaker breaker;
+        private final Semaphore bulkhead;
+        private final Duration maxWait;
+        private final QuotaGovernor quota;
+
+        Guard(String provider, ResilienceSettings settings) {
+            this.breaker = new CircuitBreaker(settings.circuitBreaker());
+            this.bulkhead = new Semaphore(settings.maxConcurrency());
+            this.maxWait = settings.maxWait();
+            this.quota = new QuotaGovernor(settings.quota());
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("weather.upstream.circuit.state", breaker, b -> b.state() == state ? 1 : 0)
+                        .description("1 for the current circuit breaker state of the provider, 0 otherwise")
+                        .tag("provider", provider)
+                        .tag("state", state.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+            Gauge.builder("weather.upstream.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                    .description("Free concurrent call slots for the provider")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            bindQuota(provider);
+        }
+
+        private void bindQuota(String provider) {
+            if (quota.limitsRate()) {
+                Gauge.builder("weather.upstream.quota.tokens", quota, QuotaGovernor::availableTokens)
+                        .description("Calls the provider's rate limit allows right now")
+                        .tag("provider", provider)
+                        .register(meterRegistry);
+            }
+            if (quota.limitsMonth()) {
+                Gauge.builder("weather.upstream.quota.remaining", quota, QuotaGovernor::remainingThisMonth)
+                        .description("Calls left in the provider's budget for this month")
+                        .tag("provider", provider)
+                        .register(meterRegistry);
+            }
+            for (CallPriority priority : CallPriority.values()) {
+                Gauge.builder("weather.upstream.quota.queued", quota, q -> q.queued(priority))
+                        .description("Calls waiting for the provider's quota")
+                        .tag("provider", provider)
+                        .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+            Gauge.builder("weather.upstream.quota.backoff", quota, q -> q.backoffRemaining().toMillis() / 1000.0)
+                    .description("Seconds left before calls resume after the provider answered 429")
+                    .tag("provider", provider)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        void release(Throwable error, long startNanos) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            String cause = error == null ? null : errorCause(error);
+            if (error instanceof UpstreamException upstream && upstream.getStatusCode() == 429) {
+                quota.onThrottled(upstream.getRetryAfter());
+            } else if (error == null) {
+                quota.onSuccess();
+            }
+            if (cause == null || cause.equals("http_4xx")) {
+                // A 4xx (unknown city, bad query) means the provider answered fine
+                breaker.onSuccess(elapsed);
+            } else if (cause.equals("interrupted")) {
+                breaker.onIgnored();
+            } else {
+                breaker.onFailure(elapsed);
+            }
+            bulkhead.release();
+        }
+    }
+}
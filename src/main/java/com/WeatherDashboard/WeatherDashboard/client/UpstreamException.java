@@ -0,0 +1,40 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an upstream weather API call fails. statusCode is the HTTP status
+ * of the response, or -1 if no response was received (timeout, connection error).
+ */
+public class UpstreamException extends RuntimeException {
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public UpstreamException(String message, int statusCode) {
+        this(message, statusCode, null);
+    }
+
+    public UpstreamException(String message, int statusCode, Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public UpstreamException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+        this.retryAfter = null;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * The provider's Retry-After on a 429 or 503, or null if it sent none.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,37 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+/**
+ * Thrown without contacting the provider, because its circuit breaker is open, its
+ * bulkhead has no free slot or its quota has no room for the call. Callers can treat
+ * it as "serve stale data if you can".
+ */
+public class UpstreamRejectedException extends UpstreamException {
+
+    public static final String CIRCUIT_OPEN = "circuit_open";
+    public static final String BULKHEAD_FULL = "bulkhead_full";
+    public static final String QUOTA_WAIT_TIMEOUT = "quota_wait_timeout";
+    public static final String QUOTA_EXHAUSTED = "quota_exhausted";
+
+    private final String reason;
+
+    public UpstreamRejectedException(String message, String reason) {
+        super(message, -1);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * True if the error, or anything in its cause chain, is a rejection.
+     */
+    public static boolean isRejection(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof UpstreamRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
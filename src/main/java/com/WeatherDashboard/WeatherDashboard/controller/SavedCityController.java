@@ -1,25 +1,50 @@
 package com.WeatherDashboard.WeatherDashboard.controller;
 
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityImportResult;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityPage;
 import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import com.WeatherDashboard.WeatherDashboard.service.SavedCityFormats;
+import com.WeatherDashboard.WeatherDashboard.service.SavedCityImportService;
 import com.WeatherDashboard.WeatherDashboard.service.SavedCityService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/saved-cities")
 public class SavedCityController {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final SavedCityService savedCityService;
+    private final SavedCityImportService savedCityImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public SavedCityController(SavedCityService savedCityService) {
+    public SavedCityController(SavedCityService savedCityService,
+                               SavedCityImportService savedCityImportService,
+                               ObjectMapper objectMapper) {
         this.savedCityService = savedCityService;
+        this.savedCityImportService = savedCityImportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -38,16 +63,54 @@ public class SavedCityController {
         }
     }
 
+    /**
+     * With after and/or limit, one keyset page as a JSON array plus a Link header to the
+     * next page. Without them, every saved city as one JSON array written as each city
+     * is resolved, so the server never holds the whole list.
+     */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllSavedCitiesWithWeather() {
+    public ResponseEntity<StreamingResponseBody> getSavedCitiesWithWeather(@RequestParam(required = false) Long after,
+                                                                           @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            StreamingResponseBody body = out -> {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.writeStartArray();
+                savedCityService.streamSavedCitiesWithWeather(city -> writeJson(generator, city));
+                generator.writeEndArray();
+                generator.close();
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
         try {
-            List<Map<String, Object>> cities = savedCityService.getAllSavedCitiesWithWeather();
-            return ResponseEntity.ok(cities);
+            SavedCityPage page = savedCityService.getSavedCitiesWithWeather(
+                    after != null ? after : Long.MIN_VALUE, limit != null ? limit : savedCityService.defaultPageSize());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            if (page.nextCursor() != null) {
+                String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                        .replaceQueryParam("after", page.nextCursor())
+                        .build().toUriString();
+                response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(out -> objectMapper.writeValue(out, page.cities()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamSavedCitiesWithWeather() {
+        StreamingResponseBody body = out -> savedCityService.streamSavedCitiesWithWeather(city -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(city));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCity(@PathVariable Long id) {
         try {
@@ -59,5 +122,67 @@ public class SavedCityController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
         }
     }
-}
 
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public ResponseEntity<?> importCsv(InputStream body) {
+        return importCities(SavedCityFormats.readCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<?> importNdjson(InputStream body) {
+        return importCities(SavedCityFormats.readNdjson(body, objectMapper));
+    }
+
+    @GetMapping(value = "/export", produces = TEXT_CSV)
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        StreamingResponseBody body = out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(SavedCityFormats.CSV_HEADER);
+            writer.write('\n');
+            savedCityImportService.exportCities(city -> {
+                try {
+                    writer.write(SavedCityFormats.toCsvLine(city));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(TEXT_CSV)).body(body);
+    }
+
+    // NDJSON unless the client asks for CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNdjson() {
+        StreamingResponseBody body = out -> savedCityImportService.exportCities(city -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(SavedCityFormats.toJson(city)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
+    private void writeJson(JsonGenerator generator, Map<String, Object> city) {
+        try {
+            // Flushes after each value, so the client sees cities as they are resolved
+            objectMapper.writeValue(generator, city);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<?> importCities(Iterator<SavedCityFormats.Row> rows) {
+        try {
+            SavedCityImportResult result = savedCityImportService.importCities(rows);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+}
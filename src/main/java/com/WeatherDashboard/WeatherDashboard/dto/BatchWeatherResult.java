@@ -0,0 +1,26 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of a /weather/batch response. Exactly one of weather or error is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchWeatherResult(
+        String query,
+        String status,
+        WeatherDTO weather,
+        String error
+) {
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+    public static final String TIMEOUT = "timeout";
+
+    public static BatchWeatherResult ok(String query, WeatherDTO weather) {
+        return new BatchWeatherResult(query, OK, weather, null);
+    }
+
+    public static BatchWeatherResult error(String query, String status, String message) {
+        return new BatchWeatherResult(query, status, null, message);
+    }
+}
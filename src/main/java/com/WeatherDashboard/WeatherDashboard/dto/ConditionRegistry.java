@@ -0,0 +1,145 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shared {@link ForecastDTO.Condition} per weatherapi condition code and icon
+ * variant (day or night). weatherapi has a few dozen codes, so without this every
+ * cached forecast would hold ~100 copies of the same few conditions and their strings.
+ *
+ * The registry is preloaded with weatherapi's published conditions, so every node has
+ * the same ids from startup. Codes weatherapi adds later are learned from responses; if
+ * it changes the text or icon for a code, the newest one replaces the old entry. The
+ * registry never holds more than one entry per id.
+ */
+public final class ConditionRegistry {
+
+    /**
+     * ObjectWriter attribute: when TRUE, conditions are written as their {@link #idOf id}
+     * only, for clients that load {@link #dictionary()} once.
+     */
+    public static final String CODES_ONLY = "weather.conditions.codes-only";
+
+    private static final String ICON_URL = "//cdn.weatherapi.com/weather/64x64/%s/%s.png";
+
+    private final Map<Integer, ForecastDTO.Condition> conditions = new ConcurrentHashMap<>();
+
+    private ConditionRegistry() {
+    }
+
+    public static ConditionRegistry empty() {
+        return new ConditionRegistry();
+    }
+
+    /**
+     * Reads {@code code,icon,day,night} lines: the condition code, the icon's file name and
+     * the day and night texts. Blank lines, lines starting with # and a header line starting
+     * with "code," are skipped.
+     */
+    public static ConditionRegistry load(InputStream in) throws IOException {
+        ConditionRegistry registry = new ConditionRegistry();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("code,")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    throw new IOException("Conditions line " + lineNumber + ": expected 4 fields, got " + fields.length);
+                }
+                try {
+                    int code = Integer.parseInt(fields[0].trim());
+                    String icon = fields[1].trim();
+                    registry.intern(fields[2].trim(), String.format(ICON_URL, "day", icon), code);
+                    registry.intern(fields[3].trim(), String.format(ICON_URL, "night", icon), code);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Conditions line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return registry;
+    }
+
+    public ForecastDTO.Condition intern(String text, String icon, int code) {
+        int key = key(code, isNight(icon));
+        ForecastDTO.Condition current = conditions.get(key);
+        if (current != null && current.code() == code
+                && Objects.equals(current.text(), text) && Objects.equals(current.icon(), icon)) {
+            return current;
+        }
+        ForecastDTO.Condition condition = new ForecastDTO.Condition(text, icon, code);
+        conditions.put(key, condition);
+        return condition;
+    }
+
+    /**
+     * The code with "d" or "n" for the icon variant, e.g. "1183n" for light rain at night.
+     */
+    public static String idOf(ForecastDTO.Condition condition) {
+        return condition.code() + (isNight(condition.icon()) ? "n" : "d");
+    }
+
+    /**
+     * Every known condition by id. Ids are stable, so clients can keep this and fetch it
+     * again only when a response has an id they do not know.
+     */
+    public Map<String, ForecastDTO.Condition> dictionary() {
+        Map<String, ForecastDTO.Condition> dictionary = new TreeMap<>();
+        for (ForecastDTO.Condition condition : conditions.values()) {
+            dictionary.put(idOf(condition), condition);
+        }
+        return dictionary;
+    }
+
+    public int size() {
+        return conditions.size();
+    }
+
+    // weatherapi icons are .../64x64/day/113.png or .../64x64/night/113.png
+    private static boolean isNight(String icon) {
+        return icon != null && icon.contains("/night/");
+    }
+
+    private static int key(int code, boolean night) {
+        return code << 1 | (night ? 1 : 0);
+    }
+
+    /**
+     * Writes {"text", "icon", "code"} as before, or just the id when {@link #CODES_ONLY} is set.
+     */
+    static final class ConditionSerializer extends StdSerializer<ForecastDTO.Condition> {
+
+        ConditionSerializer() {
+            super(ForecastDTO.Condition.class);
+        }
+
+        @Override
+        public void serialize(ForecastDTO.Condition condition, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (Boolean.TRUE.equals(provider.getAttribute(CODES_ONLY))) {
+                gen.writeString(idOf(condition));
+                return;
+            }
+            gen.writeStartObject();
+            gen.writeStringField("text", condition.text());
+            gen.writeStringField("icon", condition.icon());
+            gen.writeNumberField("code", condition.code());
+            gen.writeEndObject();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.WeatherDashboard.WeatherDashboard.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.util.List;
 
 public record ForecastDTO(
@@ -44,6 +45,8 @@ public record ForecastDTO(
             @JsonProperty("chance_of_snow") int chanceOfSnow
     ) {}
 
+    // Parsed conditions come from ConditionRegistry, so equal ones are usually the same instance
+    @JsonSerialize(using = ConditionRegistry.ConditionSerializer.class)
     public record Condition(
             String text,
             String icon,
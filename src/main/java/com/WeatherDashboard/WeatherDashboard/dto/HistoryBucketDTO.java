@@ -0,0 +1,22 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+public record HistoryBucketDTO(
+        @JsonProperty("bucket_start") Instant bucketStart,
+        int samples,
+        @JsonProperty("temp_f_min") double tempFMin,
+        @JsonProperty("temp_f_max") double tempFMax,
+        @JsonProperty("temp_f_avg") double tempFAvg,
+        @JsonProperty("temp_c_min") double tempCMin,
+        @JsonProperty("temp_c_max") double tempCMax,
+        @JsonProperty("temp_c_avg") double tempCAvg,
+        @JsonProperty("humidity_min") int humidityMin,
+        @JsonProperty("humidity_max") int humidityMax,
+        @JsonProperty("humidity_avg") double humidityAvg,
+        @JsonProperty("wind_mph_min") double windMphMin,
+        @JsonProperty("wind_mph_max") double windMphMax,
+        @JsonProperty("wind_mph_avg") double windMphAvg
+) {}
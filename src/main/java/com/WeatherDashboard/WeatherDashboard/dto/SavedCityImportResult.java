@@ -0,0 +1,11 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk saved-city import.
+ * @param duplicates rows skipped because the city was already saved or appeared earlier in the upload
+ * @param invalid    rows that could not be parsed; the first few are described in errors
+ */
+public record SavedCityImportResult(int imported, int duplicates, int invalid, List<String> errors) {
+}
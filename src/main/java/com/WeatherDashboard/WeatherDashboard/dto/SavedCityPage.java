@@ -0,0 +1,11 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One keyset page of saved cities with their weather.
+ * @param nextCursor id to pass as after= for the next page, or null on the last page
+ */
+public record SavedCityPage(List<Map<String, Object>> cities, Long nextCursor) {
+}
@@ -0,0 +1,12 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+/**
+ * The columns of a saved city, read as a projection so listing and export
+ * skip entity hydration and the persistence context.
+ */
+public record SavedCitySummary(
+        Long id,
+        String cityName,
+        double latitude,
+        double longitude
+) {}
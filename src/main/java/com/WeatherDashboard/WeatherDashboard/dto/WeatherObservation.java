@@ -0,0 +1,23 @@
+package com.WeatherDashboard.WeatherDashboard.dto;
+
+import java.time.Instant;
+
+/**
+ * One fetched set of current conditions, as stored in weather_observations.
+ * locationKey is the normalized location it was requested by (LocationKey.normalize):
+ * a lower-cased city name or a ~1km grid cell.
+ */
+public record WeatherObservation(
+        String locationKey,
+        String city,
+        String region,
+        String country,
+        double lat,
+        double lon,
+        double tempF,
+        double tempC,
+        String condition,
+        int humidity,
+        double windMph,
+        Instant observedAt
+) {}
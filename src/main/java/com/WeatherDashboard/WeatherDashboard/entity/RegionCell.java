@@ -0,0 +1,64 @@
+package com.WeatherDashboard.WeatherDashboard.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "region_cells")
+public class RegionCell {
+    // Geohash of the cell, see GeoHash
+    @Id
+    @Column(length = 12)
+    private String cell;
+
+    @Column(nullable = false)
+    private String region;
+
+    private String country;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public RegionCell() {
+    }
+
+    public RegionCell(String cell, String region, String country, Instant updatedAt) {
+        this.cell = cell;
+        this.region = region;
+        this.country = country;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getCell() {
+        return cell;
+    }
+
+    public void setCell(String cell) {
+        this.cell = cell;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
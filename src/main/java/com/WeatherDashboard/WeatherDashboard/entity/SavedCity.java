@@ -5,11 +5,18 @@ import jakarta.persistence.*;
 @Entity
 @Table(name = "saved_cities")
 public class SavedCity {
+    // Ids come from a sequence in blocks, so Hibernate can batch inserts; IDENTITY
+    // would force one round trip per row to read the generated key
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final String ID_SEQUENCE = "saved_cities_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saved_cities_id")
+    @SequenceGenerator(name = "saved_cities_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Unique ignoring case, via the lower(city_name) index created in the V2 migration
+    @Column(nullable = false)
     private String cityName;
 
     @Column(nullable = false)
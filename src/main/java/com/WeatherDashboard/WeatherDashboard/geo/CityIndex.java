@@ -0,0 +1,240 @@
+package com.WeatherDashboard.WeatherDashboard.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only spatial index over a city gazetteer, used to answer "which known cities
+ * are near this point" without an upstream call.
+ *
+ * Cities live in parallel primitive arrays ordered by a fixed lat/lon grid, so each
+ * grid cell is one contiguous slice. A query only visits the cells overlapping the
+ * search radius, which for a 15km radius is at most a handful of cells.
+ * Region and country names are stored once and referenced by id, so region filtering
+ * is an int comparison.
+ */
+public final class CityIndex {
+
+    private static final double CELL_DEGREES = 0.25;
+    private static final int LAT_CELLS = (int) (180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) (360 / CELL_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final String[] names;
+    private final double[] lats;
+    private final double[] lons;
+    private final int[] populations;
+    private final int[] regionIds;
+    private final int[] countryIds;
+    private final String[] regions;
+    private final String[] countries;
+    private final Map<String, Integer> regionIdsByName;
+    // cellKeys is sorted; cities of cellKeys[i] are at [cellStarts[i], cellStarts[i + 1])
+    private final int[] cellKeys;
+    private final int[] cellStarts;
+
+    /**
+     * Decides whether a city within the radius is kept, given its index and distance.
+     */
+    @FunctionalInterface
+    public interface Filter {
+        Filter ANY = (city, distanceKm) -> true;
+
+        boolean test(int city, double distanceKm);
+    }
+
+    private CityIndex(List<Row> rows) {
+        // Order rows by grid cell so each cell's cities are contiguous
+        rows.sort(Comparator.comparingInt(Row::cell));
+        int size = rows.size();
+        names = new String[size];
+        lats = new double[size];
+        lons = new double[size];
+        populations = new int[size];
+        regionIds = new int[size];
+        countryIds = new int[size];
+
+        Map<String, Integer> regionIndex = new HashMap<>();
+        Map<String, Integer> countryIndex = new HashMap<>();
+        List<String> regionNames = new ArrayList<>();
+        List<String> countryNames = new ArrayList<>();
+        int[] keys = new int[size];
+        int[] starts = new int[size + 1];
+        int cells = 0;
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            names[i] = row.name();
+            lats[i] = row.lat();
+            lons[i] = row.lon();
+            populations[i] = row.population();
+            regionIds[i] = intern(row.region(), regionIndex, regionNames);
+            countryIds[i] = intern(row.country(), countryIndex, countryNames);
+            if (cells == 0 || keys[cells - 1] != row.cell()) {
+                keys[cells] = row.cell();
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = size;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStarts = Arrays.copyOf(starts, cells + 1);
+        regions = regionNames.toArray(String[]::new);
+        countries = countryNames.toArray(String[]::new);
+        regionIdsByName = regionIndex;
+    }
+
+    public static CityIndex empty() {
+        return new CityIndex(new ArrayList<>());
+    }
+
+    /**
+     * Reads a gazetteer of {@code name,region,country,lat,lon,population} lines.
+     * Blank lines, lines starting with # and a header line starting with "name," are skipped.
+     */
+    public static CityIndex load(InputStream in) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("name,")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 6) {
+                    throw new IOException("Gazetteer line " + lineNumber + ": expected 6 fields, got " + fields.length);
+                }
+                try {
+                    double lat = Double.parseDouble(fields[3].trim());
+                    double lon = Double.parseDouble(fields[4].trim());
+                    if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                        throw new IOException("Gazetteer line " + lineNumber + ": coordinates out of range");
+                    }
+                    rows.add(new Row(fields[0].trim(), fields[1].trim(), fields[2].trim(), lat, lon,
+                            fields[5].isBlank() ? 0 : Integer.parseInt(fields[5].trim()), cellOf(lat, lon)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Gazetteer line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new CityIndex(rows);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Id of a region name, compared case-insensitively, or -1 if no city is in that region.
+     */
+    public int regionId(String region) {
+        return regionIdsByName.getOrDefault(region.trim().toLowerCase(Locale.ROOT), -1);
+    }
+
+    public boolean inRegion(int city, int regionId) {
+        return regionIds[city] == regionId;
+    }
+
+    /**
+     * Cities within radiusKm of the point that pass the filter, nearest first, at most limit.
+     */
+    public List<NearbyCity> nearest(double lat, double lon, double radiusKm, int limit, Filter filter) {
+        if (limit <= 0 || names.length == 0) {
+            return List.of();
+        }
+        // Best matches so far, kept sorted by distance (limit is small, so insertion is cheap)
+        int[] best = new int[limit];
+        double[] bestDistances = new double[limit];
+        int found = 0;
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        int minLatCell = Math.max(0, latCell(lat - latSpan));
+        int maxLatCell = Math.min(LAT_CELLS - 1, latCell(lat + latSpan));
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + latSpan)));
+        double lonSpan = radiusKm / (KM_PER_DEGREE * cosLat);
+        int minLonCell = lonCell(lon - lonSpan);
+        int lonCellCount = Math.min(LON_CELLS, lonCell(lon + lonSpan) - minLonCell + 1);
+
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int step = 0; step < lonCellCount; step++) {
+                // floorMod wraps across the antimeridian
+                int cell = latCell * LON_CELLS + Math.floorMod(minLonCell + step, LON_CELLS);
+                int slot = Arrays.binarySearch(cellKeys, cell);
+                if (slot < 0) {
+                    continue;
+                }
+                for (int city = cellStarts[slot]; city < cellStarts[slot + 1]; city++) {
+                    double distance = distanceKm(lat, lon, lats[city], lons[city]);
+                    if (distance > radiusKm || (found == limit && distance >= bestDistances[limit - 1])
+                            || !filter.test(city, distance)) {
+                        continue;
+                    }
+                    int at = found < limit ? found++ : limit - 1;
+                    while (at > 0 && bestDistances[at - 1] > distance) {
+                        best[at] = best[at - 1];
+                        bestDistances[at] = bestDistances[at - 1];
+                        at--;
+                    }
+                    best[at] = city;
+                    bestDistances[at] = distance;
+                }
+            }
+        }
+
+        return IntStream.range(0, found)
+                .mapToObj(i -> toNearbyCity(best[i], bestDistances[i]))
+                .toList();
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private NearbyCity toNearbyCity(int city, double distanceKm) {
+        return new NearbyCity(names[city], regions[regionIds[city]], countries[countryIds[city]],
+                lats[city], lons[city], populations[city], distanceKm);
+    }
+
+    private static int intern(String value, Map<String, Integer> index, List<String> values) {
+        return index.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> {
+            values.add(value);
+            return values.size() - 1;
+        });
+    }
+
+    private static int cellOf(double lat, double lon) {
+        return Math.min(LAT_CELLS - 1, latCell(lat)) * LON_CELLS + Math.floorMod(lonCell(lon), LON_CELLS);
+    }
+
+    private static int latCell(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_DEGREES);
+    }
+
+    private static int lonCell(double lon) {
+        return (int) Math.floor((lon + 180) / CELL_DEGREES);
+    }
+
+    private record Row(String name, String region, String country, double lat, double lon, int population, int cell) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.WeatherDashboard.WeatherDashboard.geo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+public class GazetteerConfig {
+    private static final Logger log = LoggerFactory.getLogger(GazetteerConfig.class);
+
+    @Value("${weather.nearby.gazetteer:classpath:gazetteer/cities.csv}")
+    private Resource gazetteer;
+
+    @Bean
+    public CityIndex cityIndex() throws IOException {
+        if (!gazetteer.exists()) {
+            // Without a gazetteer every nearby lookup goes to the upstream find API
+            log.warn("Gazetteer {} not found; nearby cities will come from upstream only", gazetteer);
+            return CityIndex.empty();
+        }
+        try (InputStream in = gazetteer.getInputStream()) {
+            CityIndex index = CityIndex.load(in);
+            log.info("Loaded {} cities from {}", index.size(), gazetteer);
+            return index;
+        }
+    }
+}
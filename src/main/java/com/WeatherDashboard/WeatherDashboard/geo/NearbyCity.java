@@ -0,0 +1,11 @@
+package com.WeatherDashboard.WeatherDashboard.geo;
+
+public record NearbyCity(
+        String name,
+        String region,
+        String country,
+        double lat,
+        double lon,
+        int population,
+        double distanceKm
+) {}
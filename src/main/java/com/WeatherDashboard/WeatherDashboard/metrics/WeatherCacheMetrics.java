@@ -0,0 +1,57 @@
+package com.WeatherDashboard.WeatherDashboard.metrics;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.cache.CacheStats;
+import com.WeatherDashboard.WeatherDashboard.cache.CoalescingStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the cache and request-coalescing counters kept by WeatherService.
+ */
+@Component
+public class WeatherCacheMetrics implements MeterBinder {
+
+    private final WeatherService weatherService;
+
+    @Autowired
+    public WeatherCacheMetrics(WeatherService weatherService) {
+        this.weatherService = weatherService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "current", WeatherService::getCurrentWeatherCacheStats);
+        bindCache(registry, "forecast", WeatherService::getForecastCacheStats);
+        bindCoalescing(registry, "current", WeatherService::getCurrentWeatherCoalescingStats);
+        bindCoalescing(registry, "forecast", WeatherService::getForecastCoalescingStats);
+    }
+
+    private void bindCache(MeterRegistry registry, String cache, Function<WeatherService, CacheStats> stats) {
+        counter(registry, "weather.cache.requests", ws -> stats.apply(ws).hits(), "cache", cache, "result", "hit");
+        counter(registry, "weather.cache.requests", ws -> stats.apply(ws).misses(), "cache", cache, "result", "miss");
+        counter(registry, "weather.cache.evictions", ws -> stats.apply(ws).evictions(), "cache", cache, "reason", "size");
+        counter(registry, "weather.cache.evictions", ws -> stats.apply(ws).expirations(), "cache", cache, "reason", "expired");
+        Gauge.builder("weather.cache.size", weatherService, ws -> stats.apply(ws).size())
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private void bindCoalescing(MeterRegistry registry, String flight, Function<WeatherService, CoalescingStats> stats) {
+        counter(registry, "weather.upstream.coalesced", ws -> stats.apply(ws).leaders(), "flight", flight, "role", "leader");
+        counter(registry, "weather.upstream.coalesced", ws -> stats.apply(ws).collapsed(), "flight", flight, "role", "collapsed");
+    }
+
+    private void counter(MeterRegistry registry, String name, ToDoubleFunction<WeatherService> value, String... tags) {
+        FunctionCounter.builder(name, weatherService, value)
+                .tags(tags)
+                .register(registry);
+    }
+}
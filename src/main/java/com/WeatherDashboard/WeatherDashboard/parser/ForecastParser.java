@@ -0,0 +1,202 @@
+package com.WeatherDashboard.WeatherDashboard.parser;
+
+import com.WeatherDashboard.WeatherDashboard.client.ResponseParser;
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a weatherapi.com forecast.json body straight into a {@link ForecastDTO}.
+ * Reads tokens in one pass and skips every field the DTO does not use (astro,
+ * current, feels-like, gusts, ...) without building intermediate Map trees.
+ * Conditions are the shared instances from the given {@link ConditionRegistry}.
+ */
+public class ForecastParser implements ResponseParser<ForecastDTO> {
+
+    private final JsonFactory jsonFactory;
+    private final ConditionRegistry conditionRegistry;
+
+    public ForecastParser(ConditionRegistry conditionRegistry) {
+        this(new JsonFactory(), conditionRegistry);
+    }
+
+    public ForecastParser(JsonFactory jsonFactory, ConditionRegistry conditionRegistry) {
+        this.jsonFactory = jsonFactory;
+        this.conditionRegistry = conditionRegistry;
+    }
+
+    @Override
+    public ForecastDTO parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            Location location = null;
+            List<ForecastDTO.ForecastDay> days = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "location" -> location = parseLocation(parser);
+                    case "forecast" -> days = parseForecast(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (location == null || days == null) {
+                throw new JsonParseException(parser, "Forecast response is missing location or forecast");
+            }
+            return new ForecastDTO(location.name, location.region, location.country, location.lat, location.lon, days);
+        }
+    }
+
+    private Location parseLocation(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        Location location = new Location();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> location.name = parser.getValueAsString();
+                case "region" -> location.region = parser.getValueAsString();
+                case "country" -> location.country = parser.getValueAsString();
+                case "lat" -> location.lat = parser.getValueAsDouble();
+                case "lon" -> location.lon = parser.getValueAsDouble();
+                default -> parser.skipChildren();
+            }
+        }
+        return location;
+    }
+
+    private List<ForecastDTO.ForecastDay> parseForecast(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        List<ForecastDTO.ForecastDay> days = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("forecastday".equals(field)) {
+                expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    days.add(parseForecastDay(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return days;
+    }
+
+    private ForecastDTO.ForecastDay parseForecastDay(JsonParser parser) throws IOException {
+        String date = null;
+        ForecastDTO.DayForecast day = null;
+        List<ForecastDTO.HourForecast> hours = new ArrayList<>(24);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "date" -> date = parser.getValueAsString();
+                case "day" -> day = parseDay(parser);
+                case "hour" -> {
+                    expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        hours.add(parseHour(parser));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new ForecastDTO.ForecastDay(date, day, hours);
+    }
+
+    private ForecastDTO.DayForecast parseDay(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        double maxTempF = 0, maxTempC = 0, minTempF = 0, minTempC = 0, avgTempF = 0, avgTempC = 0;
+        double maxWindMph = 0, totalPrecipIn = 0, totalPrecipMm = 0;
+        int avgHumidity = 0, chanceOfRain = 0, chanceOfSnow = 0;
+        ForecastDTO.Condition condition = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "maxtemp_f" -> maxTempF = parser.getValueAsDouble();
+                case "maxtemp_c" -> maxTempC = parser.getValueAsDouble();
+                case "mintemp_f" -> minTempF = parser.getValueAsDouble();
+                case "mintemp_c" -> minTempC = parser.getValueAsDouble();
+                case "avgtemp_f" -> avgTempF = parser.getValueAsDouble();
+                case "avgtemp_c" -> avgTempC = parser.getValueAsDouble();
+                case "maxwind_mph" -> maxWindMph = parser.getValueAsDouble();
+                case "totalprecip_in" -> totalPrecipIn = parser.getValueAsDouble();
+                case "totalprecip_mm" -> totalPrecipMm = parser.getValueAsDouble();
+                case "avghumidity" -> avgHumidity = parser.getValueAsInt();
+                case "daily_chance_of_rain" -> chanceOfRain = parser.getValueAsInt();
+                case "daily_chance_of_snow" -> chanceOfSnow = parser.getValueAsInt();
+                case "condition" -> condition = parseCondition(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new ForecastDTO.DayForecast(maxTempF, maxTempC, minTempF, minTempC, avgTempF, avgTempC,
+                maxWindMph, totalPrecipIn, totalPrecipMm, avgHumidity, condition, chanceOfRain, chanceOfSnow);
+    }
+
+    private ForecastDTO.HourForecast parseHour(JsonParser parser) throws IOException {
+        String time = null;
+        double tempF = 0, tempC = 0, windMph = 0;
+        int humidity = 0, chanceOfRain = 0, chanceOfSnow = 0;
+        ForecastDTO.Condition condition = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "time" -> time = parser.getValueAsString();
+                case "temp_f" -> tempF = parser.getValueAsDouble();
+                case "temp_c" -> tempC = parser.getValueAsDouble();
+                case "wind_mph" -> windMph = parser.getValueAsDouble();
+                case "humidity" -> humidity = parser.getValueAsInt();
+                case "chance_of_rain" -> chanceOfRain = parser.getValueAsInt();
+                case "chance_of_snow" -> chanceOfSnow = parser.getValueAsInt();
+                case "condition" -> condition = parseCondition(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new ForecastDTO.HourForecast(time, tempF, tempC, condition, windMph, humidity, chanceOfRain, chanceOfSnow);
+    }
+
+    private ForecastDTO.Condition parseCondition(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        String text = null;
+        String icon = null;
+        int code = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "text" -> text = parser.getValueAsString();
+                case "icon" -> icon = parser.getValueAsString();
+                case "code" -> code = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+        return conditionRegistry.intern(text, icon, code);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static final class Location {
+        String name;
+        String region;
+        String country;
+        double lat;
+        double lon;
+    }
+}
@@ -0,0 +1,25 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+
+/**
+ * An upstream API that can answer current-weather queries, normalized to WeatherDTO.
+ */
+public interface CurrentWeatherProvider {
+
+    /**
+     * Provider name, the same as UpstreamApi.provider() for its calls.
+     */
+    String name();
+
+    /**
+     * False when no API key is set, so the provider is left out of routing.
+     */
+    boolean isConfigured();
+
+    /**
+     * Blocking fetch for a city name or "lat,lon" query.
+     * @throws com.WeatherDashboard.WeatherDashboard.client.UpstreamException if the call fails
+     */
+    WeatherDTO fetch(String query);
+}
@@ -0,0 +1,298 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamException;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Routes current-weather fetches across the configured providers.
+ *
+ * The first provider in weather.providers.order is asked first. If it has not answered
+ * after its own recent p95 latency, the same query is sent to the second one as a hedge
+ * and whichever answers first wins, so only the slowest ~5% of calls cost a second
+ * request. A hedge budget (hedge.budget-ratio hedges per call, at most 10 banked) keeps
+ * that true when the primary slows down across the board. If the primary fails, the
+ * second provider is tried straight away, unless the primary rejected the query itself
+ * (a 4xx other than 429).
+ */
+@Component
+public class CurrentWeatherProviders {
+    private static final Logger log = LoggerFactory.getLogger(CurrentWeatherProviders.class);
+
+    private static final double HEDGE_PERCENTILE = 0.95;
+    // Latencies kept per provider, and how many are needed before the percentile is trusted
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final List<Route> routes;
+    private final boolean hedgeEnabled;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final double budgetRatio;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+    @Autowired
+    public CurrentWeatherProviders(List<CurrentWeatherProvider> providers,
+                                   @Value("${weather.providers.order:weatherapi,openweathermap}") List<String> order,
+                                   @Value("${weather.providers.hedge.enabled:true}") boolean hedgeEnabled,
+                                   @Value("${weather.providers.hedge.initial-delay-ms:800}") long initialDelayMs,
+                                   @Value("${weather.providers.hedge.min-delay-ms:50}") long minDelayMs,
+                                   @Value("${weather.providers.hedge.max-delay-ms:3000}") long maxDelayMs,
+                                   @Value("${weather.providers.hedge.budget-ratio:0.1}") double budgetRatio,
+                                   MeterRegistry meterRegistry) {
+        this.hedgeEnabled = hedgeEnabled;
+        this.initialDelay = Duration.ofMillis(initialDelayMs);
+        this.minDelay = Duration.ofMillis(minDelayMs);
+        this.maxDelay = Duration.ofMillis(Math.max(minDelayMs, maxDelayMs));
+        this.budgetRatio = budgetRatio;
+        this.meterRegistry = meterRegistry;
+
+        // Providers missing from the order list go last; unconfigured ones are left out
+        List<CurrentWeatherProvider> ordered = new ArrayList<>(providers);
+        ordered.sort(Comparator.comparingInt(p -> order.contains(p.name()) ? order.indexOf(p.name()) : order.size()));
+        this.routes = new ArrayList<>();
+        for (CurrentWeatherProvider provider : ordered) {
+            if (provider.isConfigured()) {
+                routes.add(new Route(provider));
+            }
+        }
+        log.info("Current weather providers in order: {}", routes.stream().map(Route::name).toList());
+    }
+
+    public WeatherDTO fetch(String query) {
+        if (routes.isEmpty()) {
+            throw new IllegalStateException("No current weather provider has an API key configured");
+        }
+        Route primary = routes.get(0);
+        if (routes.size() == 1) {
+            return primary.fetch(query);
+        }
+        Route secondary = routes.get(1);
+        if (!hedgeEnabled) {
+            try {
+                return primary.fetch(query);
+            } catch (RuntimeException e) {
+                return failOver(primary, e, secondary, query);
+            }
+        }
+
+        depositHedgeToken();
+        CallPriority priority = CallPriority.current();
+        CompletableFuture<WeatherDTO> first = primary.start(query, priority);
+        try {
+            return first.get(primary.hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!takeHedgeToken()) {
+                hedges(secondary, "skipped").increment();
+                return awaitOrFailOver(first, primary, secondary, query);
+            }
+            return hedge(first, primary, secondary, query, priority);
+        } catch (ExecutionException e) {
+            return failOver(primary, unwrap(e), secondary, query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted waiting for " + primary.name(), e);
+        }
+    }
+
+    /**
+     * Runs the query on the secondary as well and returns the first success. If both fail,
+     * the primary's error is thrown with the secondary's attached as suppressed.
+     */
+    private WeatherDTO hedge(CompletableFuture<WeatherDTO> first, Route primary, Route secondary,
+                             String query, CallPriority priority) {
+        CompletableFuture<WeatherDTO> second = secondary.start(query, priority);
+        CompletableFuture<WeatherDTO> winner = new CompletableFuture<>();
+        first.thenAccept(winner::complete);
+        second.thenAccept(winner::complete);
+        CompletableFuture.allOf(first, second).whenComplete((ignored, error) -> {
+            if (error != null) {
+                RuntimeException primaryError = unwrap(first);
+                RuntimeException secondaryError = unwrap(second);
+                if (primaryError != null && secondaryError != null) {
+                    primaryError.addSuppressed(secondaryError);
+                }
+                winner.completeExceptionally(primaryError != null ? primaryError : secondaryError);
+            }
+        });
+
+        WeatherDTO result;
+        try {
+            result = winner.get();
+        } catch (ExecutionException e) {
+            hedges(secondary, "lost").increment();
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted waiting for " + primary.name() + " and " + secondary.name(), e);
+        }
+        // The loser is left to finish: its latency still feeds the percentile
+        boolean won = second.isDone() && !second.isCompletedExceptionally() && second.getNow(null) == result;
+        hedges(secondary, won ? "won" : "lost").increment();
+        return result;
+    }
+
+    private WeatherDTO awaitOrFailOver(CompletableFuture<WeatherDTO> first, Route primary, Route secondary, String query) {
+        try {
+            return first.get();
+        } catch (ExecutionException e) {
+            return failOver(primary, unwrap(e), secondary, query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted waiting for " + primary.name(), e);
+        }
+    }
+
+    private WeatherDTO failOver(Route primary, RuntimeException error, Route secondary, String query) {
+        if (!shouldFailOver(error)) {
+            throw error;
+        }
+        Counter.builder("weather.provider.failovers")
+                .description("Current weather fetches retried on the next provider after an error")
+                .tag("from", primary.name())
+                .tag("to", secondary.name())
+                .register(meterRegistry)
+                .increment();
+        try {
+            return secondary.fetch(query);
+        } catch (RuntimeException e) {
+            error.addSuppressed(e);
+            throw error;
+        }
+    }
+
+    // A 4xx other than 429 means the query itself was refused; another provider won't do better
+    static boolean shouldFailOver(Throwable error) {
+        if (error instanceof UpstreamException upstream) {
+            int status = upstream.getStatusCode();
+            return status < 400 || status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private synchronized void depositHedgeToken() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + budgetRatio);
+    }
+
+    private synchronized boolean takeHedgeToken() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens -= 1;
+        return true;
+    }
+
+    private Counter hedges(Route secondary, String outcome) {
+        return Counter.builder("weather.provider.hedges")
+                .description("Current weather fetches also sent to the secondary provider because the primary was slow")
+                .tag("provider", secondary.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof RuntimeException runtime ? runtime : new UpstreamException(cause.getMessage(), cause);
+    }
+
+    private static RuntimeException unwrap(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause instanceof RuntimeException runtime ? runtime : new UpstreamException(cause.getMessage(), cause);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One provider with a ring buffer of its recent successful latencies.
+     */
+    private final class Route {
+        private final CurrentWeatherProvider provider;
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int recorded;
+        private int next;
+
+        Route(CurrentWeatherProvider provider) {
+            this.provider = provider;
+            Gauge.builder("weather.provider.hedge.delay", this, route -> route.hedgeDelay().toNanos() / 1e9)
+                    .description("How long a call to the provider runs before it is hedged")
+                    .tag("provider", provider.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        String name() {
+            return provider.name();
+        }
+
+        WeatherDTO fetch(String query) {
+            long start = System.nanoTime();
+            WeatherDTO weather = provider.fetch(query);
+            record(System.nanoTime() - start);
+            return weather;
+        }
+
+        CompletableFuture<WeatherDTO> start(String query, CallPriority priority) {
+            CompletableFuture<WeatherDTO> future = new CompletableFuture<>();
+            executor.execute(() -> priority.run(() -> {
+                try {
+                    future.complete(fetch(query));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }));
+            return future;
+        }
+
+        private synchronized void record(long nanos) {
+            latencies[next] = nanos;
+            next = (next + 1) % latencies.length;
+            recorded = Math.min(recorded + 1, latencies.length);
+        }
+
+        synchronized Duration hedgeDelay() {
+            if (recorded < MIN_SAMPLES) {
+                return initialDelay;
+            }
+            long[] sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+            Duration percentile = Duration.ofNanos(sorted[(int) Math.ceil(HEDGE_PERCENTILE * recorded) - 1]);
+            if (percentile.compareTo(minDelay) < 0) {
+                return minDelay;
+            }
+            return percentile.compareTo(maxDelay) > 0 ? maxDelay : percentile;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamApi;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamClient;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Current weather from openweathermap's /data/2.5/weather, shaped like a weatherapi answer:
+ * imperial units with Celsius derived, the description capitalized, and the ISO country
+ * code spelled out. The API has no state/region, so it is left null rather than guessed:
+ * a neighbouring city can be across a state line, and regions are cached for good.
+ */
+@Component
+public class OpenWeatherMapProvider implements CurrentWeatherProvider {
+
+    private static final String CURRENT_URL = "https://api.openweathermap.org/data/2.5/weather";
+
+    private final UpstreamClient upstreamClient;
+    private final String apiKey;
+
+    @Autowired
+    public OpenWeatherMapProvider(UpstreamClient upstreamClient,
+                                  @Value("${openweather.key}") String apiKey) {
+        this.upstreamClient = upstreamClient;
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public String name() {
+        return UpstreamApi.OPENWEATHERMAP_CURRENT.provider();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public WeatherDTO fetch(String query) {
+        double[] coords = LocationKey.coordinates(query);
+        String location = coords != null
+                ? "lat=" + coords[0] + "&lon=" + coords[1]
+                : "q=" + URLEncoder.encode(query.trim(), StandardCharsets.UTF_8);
+        String url = CURRENT_URL + "?" + location + "&units=imperial&appid=" + apiKey;
+        return toWeatherDTO(upstreamClient.getJson(UpstreamApi.OPENWEATHERMAP_CURRENT, url));
+    }
+
+    @SuppressWarnings("unchecked")
+    WeatherDTO toWeatherDTO(Map<String, Object> response) {
+        Map<String, Object> main = (Map<String, Object>) response.get("main");
+        Map<String, Object> coord = (Map<String, Object>) response.get("coord");
+        Map<String, Object> sys = (Map<String, Object>) response.get("sys");
+        Map<String, Object> wind = (Map<String, Object>) response.get("wind");
+        List<Map<String, Object>> weather = (List<Map<String, Object>>) response.get("weather");
+
+        double lat = ((Number) coord.get("lat")).doubleValue();
+        double lon = ((Number) coord.get("lon")).doubleValue();
+        double tempF = ((Number) main.get("temp")).doubleValue();
+        String description = weather == null || weather.isEmpty() ? "" : (String) weather.get(0).get("description");
+
+        return new WeatherDTO(
+                (String) response.get("name"),
+                null,
+                sys == null ? null : countryName((String) sys.get("country")),
+                tempF,
+                // weatherapi reports Celsius to one decimal
+                Math.round((tempF - 32) * 5 / 9 * 10) / 10.0,
+                capitalize(description),
+                ((Number) main.get("humidity")).intValue(),
+                wind == null ? 0.0 : ((Number) wind.get("speed")).doubleValue(),
+                lat,
+                lon
+        );
+    }
+
+    private static String countryName(String isoCode) {
+        if (isoCode == null || isoCode.isBlank()) {
+            return null;
+        }
+        String name = Locale.of("", isoCode).getDisplayCountry(Locale.ENGLISH);
+        return name.isEmpty() ? isoCode : name;
+    }
+
+    private static String capitalize(String text) {
+        return text == null || text.isEmpty() ? text : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamApi;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamClient;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Current weather from weatherapi.com, whose response maps onto WeatherDTO one to one.
+ */
+@Component
+public class WeatherApiProvider implements CurrentWeatherProvider {
+
+    private static final String CURRENT_URL = "https://api.weatherapi.com/v1/current.json";
+
+    private final UpstreamClient upstreamClient;
+    private final String apiKey;
+
+    @Autowired
+    public WeatherApiProvider(UpstreamClient upstreamClient, @Value("${weatherapi.key}") String apiKey) {
+        this.upstreamClient = upstreamClient;
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public String name() {
+        return UpstreamApi.WEATHERAPI_CURRENT.provider();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public WeatherDTO fetch(String query) {
+        String url = CURRENT_URL + "?key=" + apiKey + "&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+        return toWeatherDTO(upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, url));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static WeatherDTO toWeatherDTO(Map<String, Object> response) {
+        Map<String, Object> location = (Map<String, Object>) response.get("location");
+        Map<String, Object> current = (Map<String, Object>) response.get("current");
+        Map<String, Object> condition = (Map<String, Object>) current.get("condition");
+
+        return new WeatherDTO(
+                (String) location.get("name"),
+                (String) location.get("region"),
+                (String) location.get("country"),
+                ((Number) current.get("temp_f")).doubleValue(),
+                ((Number) current.get("temp_c")).doubleValue(),
+                (String) condition.get("text"),
+                ((Number) current.get("humidity")).intValue(),
+                ((Number) current.get("wind_mph")).doubleValue(),
+                ((Number) location.get("lat")).doubleValue(),
+                ((Number) location.get("lon")).doubleValue()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.entity.RegionCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RegionCellRepository extends JpaRepository<RegionCell, String> {
+}
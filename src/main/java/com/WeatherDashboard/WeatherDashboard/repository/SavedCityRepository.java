@@ -1,13 +1,18 @@
 package com.WeatherDashboard.WeatherDashboard.repository;
 
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
 import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface SavedCityRepository extends JpaRepository<SavedCity, Long> {
-    Optional<SavedCity> findByCityNameIgnoreCase(String cityName);
+public interface SavedCityRepository extends JpaRepository<SavedCity, Long>, SavedCityRepositoryCustom {
+
+    // Keyset page: rows after the last id seen, so deep pages cost the same as the first.
+    // Selects the columns straight into the record, without managed entities.
+    List<SavedCitySummary> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 }
 
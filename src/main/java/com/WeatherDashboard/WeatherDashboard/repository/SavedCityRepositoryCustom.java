@@ -0,0 +1,25 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SavedCityRepositoryCustom {
+
+    /**
+     * Saves the city in a single statement unless a city with the same name, ignoring
+     * case, already exists. The unique index decides, so concurrent saves of one name
+     * cannot both succeed.
+     * @return the saved city, or empty if the name is already taken
+     */
+    Optional<SavedCity> insertIfAbsent(String cityName, double lat, double lon);
+
+    /**
+     * Same as insertIfAbsent for many cities at once, as multi-row statements. A name
+     * that is taken, including by a save running concurrently, is skipped rather than
+     * failing the rest of the rows.
+     * @return how many of the cities were saved
+     */
+    int insertAllIfAbsent(List<SavedCity> cities);
+}
@@ -0,0 +1,73 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC part of SavedCityRepository, for the statements JPA cannot express.
+ */
+public class SavedCityRepositoryImpl implements SavedCityRepositoryCustom {
+
+    // ON CONFLICT without a target also works on H2; the only unique index that can
+    // conflict is the one on lower(city_name), since the id is always new.
+    // The id takes a whole sequence value, so it never falls in a block Hibernate has reserved.
+    private static final String INSERT_SQL = "INSERT INTO saved_cities (id, city_name, latitude, longitude) VALUES ";
+    private static final String ROW_SQL = "(nextval('" + SavedCity.ID_SEQUENCE + "'), ?, ?, ?)";
+    private static final String ON_CONFLICT_SQL = " ON CONFLICT DO NOTHING";
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + ROW_SQL + ON_CONFLICT_SQL;
+    // 3 parameters a row, well below the driver's limit of 32767 per statement
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SavedCityRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<SavedCity> insertIfAbsent(String cityName, double lat, double lon) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        // Asking for the id back makes the Postgres driver add RETURNING, so this stays one round trip
+        int inserted = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_IF_ABSENT_SQL, new String[] {"id"});
+            ps.setString(1, cityName);
+            ps.setDouble(2, lat);
+            ps.setDouble(3, lon);
+            return ps;
+        }, keyHolder);
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        SavedCity savedCity = new SavedCity(cityName, lat, lon);
+        savedCity.setId(keyHolder.getKeyAs(Long.class));
+        return Optional.of(savedCity);
+    }
+
+    @Override
+    public int insertAllIfAbsent(List<SavedCity> cities) {
+        int inserted = 0;
+        for (int from = 0; from < cities.size(); from += ROWS_PER_STATEMENT) {
+            List<SavedCity> rows = cities.subList(from, Math.min(cities.size(), from + ROWS_PER_STATEMENT));
+            // One statement rather than a JDBC batch: a rewritten batch does not report how many rows went in
+            String sql = INSERT_SQL + String.join(", ", Collections.nCopies(rows.size(), ROW_SQL)) + ON_CONFLICT_SQL;
+            inserted += jdbcTemplate.update(sql, ps -> {
+                int i = 1;
+                for (SavedCity city : rows) {
+                    ps.setString(i++, city.getCityName());
+                    ps.setDouble(i++, city.getLatitude());
+                    ps.setDouble(i++, city.getLongitude());
+                }
+            });
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,127 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.dto.HistoryBucketDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherObservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only store for fetched weather observations.
+ * The table comes from the Flyway migrations. On Postgres it is range-partitioned by
+ * month on observed_at, and each month's partition is created the first time that
+ * month is written. Other databases (the embedded one used in tests) have a plain table.
+ */
+@Repository
+public class WeatherObservationRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO weather_observations
+                (location_key, city_name, region, country, lat, lon,
+                 temp_f, temp_c, condition_text, humidity, wind_mph, observed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Buckets are computed in the database so only one row per bucket comes back
+    private static final String HISTORY_SQL = """
+            SELECT floor(extract(epoch FROM observed_at) / ?) * ? AS bucket_start,
+                   count(*) AS samples,
+                   min(temp_f) AS temp_f_min, max(temp_f) AS temp_f_max, avg(temp_f) AS temp_f_avg,
+                   min(temp_c) AS temp_c_min, max(temp_c) AS temp_c_max, avg(temp_c) AS temp_c_avg,
+                   min(humidity) AS humidity_min, max(humidity) AS humidity_max, avg(humidity) AS humidity_avg,
+                   min(wind_mph) AS wind_mph_min, max(wind_mph) AS wind_mph_max, avg(wind_mph) AS wind_mph_avg
+            FROM weather_observations
+            WHERE location_key = ? AND observed_at >= ? AND observed_at < ?
+            GROUP BY bucket_start
+            ORDER BY bucket_start
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+    private volatile Boolean partitioned;
+
+    @Autowired
+    public WeatherObservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertBatch(List<WeatherObservation> observations) {
+        if (observations.isEmpty()) {
+            return;
+        }
+        ensurePartitions(observations);
+        jdbcTemplate.batchUpdate(INSERT_SQL, observations, observations.size(), (ps, o) -> {
+            ps.setString(1, o.locationKey());
+            ps.setString(2, o.city());
+            ps.setString(3, o.region());
+            ps.setString(4, o.country());
+            ps.setDouble(5, o.lat());
+            ps.setDouble(6, o.lon());
+            ps.setDouble(7, o.tempF());
+            ps.setDouble(8, o.tempC());
+            ps.setString(9, o.condition());
+            ps.setInt(10, o.humidity());
+            ps.setDouble(11, o.windMph());
+            ps.setObject(12, OffsetDateTime.ofInstant(o.observedAt(), ZoneOffset.UTC));
+        });
+    }
+
+    public List<HistoryBucketDTO> findHistory(String locationKey, Instant from, Instant to, long bucketSeconds) {
+        return jdbcTemplate.query(HISTORY_SQL, (rs, rowNum) -> new HistoryBucketDTO(
+                Instant.ofEpochSecond(rs.getLong("bucket_start")),
+                rs.getInt("samples"),
+                rs.getDouble("temp_f_min"),
+                rs.getDouble("temp_f_max"),
+                rs.getDouble("temp_f_avg"),
+                rs.getDouble("temp_c_min"),
+                rs.getDouble("temp_c_max"),
+                rs.getDouble("temp_c_avg"),
+                rs.getInt("humidity_min"),
+                rs.getInt("humidity_max"),
+                rs.getDouble("humidity_avg"),
+                rs.getDouble("wind_mph_min"),
+                rs.getDouble("wind_mph_max"),
+                rs.getDouble("wind_mph_avg")
+        ), bucketSeconds, bucketSeconds, locationKey,
+                OffsetDateTime.ofInstant(from, ZoneOffset.UTC), OffsetDateTime.ofInstant(to, ZoneOffset.UTC));
+    }
+
+    private void ensurePartitions(List<WeatherObservation> observations) {
+        if (!isPartitioned()) {
+            return;
+        }
+        Set<YearMonth> months = new TreeSet<>();
+        for (WeatherObservation o : observations) {
+            months.add(YearMonth.from(o.observedAt().atOffset(ZoneOffset.UTC)));
+        }
+        for (YearMonth month : months) {
+            if (knownPartitions.contains(month)) {
+                continue;
+            }
+            // Only remembered once created, so a failed CREATE is retried by the next batch
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS weather_observations_%d_%02d PARTITION OF weather_observations "
+                            + "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                    month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1)));
+            knownPartitions.add(month);
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return partitioned;
+    }
+}
@@ -0,0 +1,63 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.entity.RegionCell;
+import com.WeatherDashboard.WeatherDashboard.geo.GeoHash;
+import com.WeatherDashboard.WeatherDashboard.repository.RegionCellRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived map from geohash cell to state/region. A place's region never changes,
+ * so once a cell has been resolved by an upstream call it is answered from memory
+ * (or the region_cells table after a restart) instead of the network.
+ */
+@Service
+public class RegionLookupService {
+
+    // ~1.2km x 0.6km cells
+    static final int CELL_PRECISION = 6;
+
+    private final RegionCellRepository regionCellRepository;
+    private final Map<String, String> regionsByCell = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RegionLookupService(RegionCellRepository regionCellRepository) {
+        this.regionCellRepository = regionCellRepository;
+    }
+
+    public Optional<String> findRegion(double lat, double lon) {
+        String cell = GeoHash.encode(lat, lon, CELL_PRECISION);
+        String region = regionsByCell.get(cell);
+        if (region != null) {
+            return Optional.of(region);
+        }
+        try {
+            Optional<String> stored = regionCellRepository.findById(cell).map(RegionCell::getRegion);
+            stored.ifPresent(r -> regionsByCell.put(cell, r));
+            return stored;
+        } catch (RuntimeException e) {
+            // The lookup is only a shortcut; callers fall back to the upstream API
+            return Optional.empty();
+        }
+    }
+
+    public void recordRegion(double lat, double lon, String region, String country) {
+        if (region == null || region.isBlank()) {
+            return;
+        }
+        String cell = GeoHash.encode(lat, lon, CELL_PRECISION);
+        if (region.equals(regionsByCell.put(cell, region))) {
+            return;
+        }
+        try {
+            regionCellRepository.save(new RegionCell(cell, region, country, Instant.now()));
+        } catch (RuntimeException e) {
+            // Best effort: the region stays cached in memory for this process
+        }
+    }
+}
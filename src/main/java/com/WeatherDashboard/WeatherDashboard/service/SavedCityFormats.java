@@ -0,0 +1,249 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads and writes saved cities as CSV or NDJSON for bulk import and export.
+ * Readers go line by line, so an upload is never held in memory whole, and a bad
+ * line only rejects that row.
+ */
+public final class SavedCityFormats {
+
+    public static final String CSV_HEADER = "id,cityName,lat,lon";
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    /**
+     * One parsed input line; error is set instead of the fields when the line is invalid.
+     */
+    public record Row(long line, String cityName, double lat, double lon, String error) {
+        static Row invalid(long line, String error) {
+            return new Row(line, null, 0, 0, error);
+        }
+    }
+
+    private SavedCityFormats() {
+    }
+
+    /**
+     * CSV with columns cityName,lat,lon, or any order given by a header row
+     * (cityName/name/city, lat/latitude, lon/lng/longitude; other columns are ignored).
+     */
+    public static Iterator<Row> readCsv(InputStream in) {
+        BufferedReader reader = reader(in);
+        return new LineIterator(reader) {
+            private int nameColumn = 0;
+            private int latColumn = 1;
+            private int lonColumn = 2;
+            private boolean first = true;
+
+            @Override
+            Row parse(long lineNumber, String line) {
+                List<String> fields = splitCsv(line);
+                if (first) {
+                    first = false;
+                    if (readHeader(fields)) {
+                        return null;
+                    }
+                }
+                int needed = Math.max(nameColumn, Math.max(latColumn, lonColumn)) + 1;
+                if (fields.size() < needed) {
+                    return Row.invalid(lineNumber, "expected at least " + needed + " fields");
+                }
+                return validate(lineNumber, fields.get(nameColumn), fields.get(latColumn), fields.get(lonColumn));
+            }
+
+            private boolean readHeader(List<String> fields) {
+                int name = -1, lat = -1, lon = -1;
+                for (int i = 0; i < fields.size(); i++) {
+                    switch (fields.get(i).trim().toLowerCase(Locale.ROOT)) {
+                        case "cityname", "name", "city" -> name = i;
+                        case "lat", "latitude" -> lat = i;
+                        case "lon", "lng", "longitude" -> lon = i;
+                        default -> { }
+                    }
+                }
+                if (name < 0 && lat < 0 && lon < 0) {
+                    return false;
+                }
+                // A header with a missing column leaves the defaults, which then fail per row
+                nameColumn = name >= 0 ? name : nameColumn;
+                latColumn = lat >= 0 ? lat : latColumn;
+                lonColumn = lon >= 0 ? lon : lonColumn;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * One JSON object per line with cityName (or name), lat and lon.
+     */
+    public static Iterator<Row> readNdjson(InputStream in, ObjectMapper objectMapper) {
+        BufferedReader reader = reader(in);
+        return new LineIterator(reader) {
+            @Override
+            Row parse(long lineNumber, String line) {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    return Row.invalid(lineNumber, "not valid JSON");
+                }
+                if (node == null || !node.isObject()) {
+                    return Row.invalid(lineNumber, "expected a JSON object");
+                }
+                JsonNode name = node.hasNonNull("cityName") ? node.get("cityName") : node.get("name");
+                return validate(lineNumber, name == null || name.isNull() ? null : name.asText(),
+                        text(node, "lat", "latitude"), text(node, "lon", "longitude"));
+            }
+        };
+    }
+
+    public static String toCsvLine(SavedCitySummary savedCity) {
+        return savedCity.id() + "," + quoteCsv(savedCity.cityName()) + ","
+                + savedCity.latitude() + "," + savedCity.longitude();
+    }
+
+    public static Map<String, Object> toJson(SavedCitySummary savedCity) {
+        // Same keys the importers and POST /saved-cities accept, so an export can be re-imported
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", savedCity.id());
+        json.put("cityName", savedCity.cityName());
+        json.put("lat", savedCity.latitude());
+        json.put("lon", savedCity.longitude());
+        return json;
+    }
+
+    static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields with "" escapes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Row validate(long lineNumber, String cityName, String lat, String lon) {
+        String name = cityName == null ? "" : cityName.trim();
+        if (name.isEmpty()) {
+            return Row.invalid(lineNumber, "cityName is required");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return Row.invalid(lineNumber, "cityName is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (lat == null || lon == null) {
+            return Row.invalid(lineNumber, "lat and lon are required");
+        }
+        double latitude;
+        double longitude;
+        try {
+            latitude = Double.parseDouble(lat.trim());
+            longitude = Double.parseDouble(lon.trim());
+        } catch (NumberFormatException e) {
+            return Row.invalid(lineNumber, "lat and lon must be numbers");
+        }
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            return Row.invalid(lineNumber, "coordinates out of range: " + lat.trim() + "," + lon.trim());
+        }
+        return new Row(lineNumber, name, latitude, longitude, null);
+    }
+
+    private static String text(JsonNode node, String field, String alias) {
+        JsonNode value = node.hasNonNull(field) ? node.get(field) : node.get(alias);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Pulls lines lazily, skipping blank ones and any line parse() returns null for.
+     */
+    private abstract static class LineIterator implements Iterator<Row> {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private Row next;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        abstract Row parse(long lineNumber, String line);
+
+        @Override
+        public boolean hasNext() {
+            try {
+                String line;
+                while (next == null && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    // Spreadsheet exports often start with a byte order mark
+                    if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                        line = line.substring(1);
+                    }
+                    if (!line.isBlank()) {
+                        next = parse(lineNumber, line);
+                    }
+                }
+                return next != null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+}
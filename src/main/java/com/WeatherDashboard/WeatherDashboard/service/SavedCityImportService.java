@@ -0,0 +1,106 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityImportResult;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import com.WeatherDashboard.WeatherDashboard.repository.SavedCityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import and export of saved cities.
+ *
+ * Uploads are consumed in chunks of batchSize rows, so memory stays flat however large
+ * the upload is. Each chunk is one INSERT ... ON CONFLICT DO NOTHING: the unique index
+ * on the lower-cased name skips cities that are already saved, even by a save that
+ * commits while the import runs, instead of rolling the chunk back.
+ */
+@Service
+public class SavedCityImportService {
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final SavedCityRepository savedCityRepository;
+    private final int batchSize;
+
+    @Autowired
+    public SavedCityImportService(SavedCityRepository savedCityRepository,
+                                  @Value("${saved-cities.import.batch-size:500}") int batchSize) {
+        this.savedCityRepository = savedCityRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Saves every valid row whose city is not saved yet. Names are compared case-insensitively,
+     * against the database and against earlier rows of the same upload. Each chunk commits
+     * on its own, so a failure part way through keeps the chunks before it.
+     */
+    public SavedCityImportResult importCities(Iterator<SavedCityFormats.Row> rows) {
+        Set<String> seen = new HashSet<>();
+        Map<String, SavedCity> chunk = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int imported = 0;
+        int duplicates = 0;
+        int invalid = 0;
+
+        while (rows.hasNext()) {
+            SavedCityFormats.Row row = rows.next();
+            if (row.error() != null) {
+                invalid++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("line " + row.line() + ": " + row.error());
+                }
+                continue;
+            }
+            String key = row.cityName().toLowerCase(Locale.ROOT);
+            if (!seen.add(key)) {
+                duplicates++;
+                continue;
+            }
+            chunk.put(key, new SavedCity(row.cityName(), row.lat(), row.lon()));
+            if (chunk.size() >= batchSize) {
+                int saved = saveChunk(chunk);
+                imported += saved;
+                duplicates += chunk.size() - saved;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int saved = saveChunk(chunk);
+            imported += saved;
+            duplicates += chunk.size() - saved;
+        }
+        return new SavedCityImportResult(imported, duplicates, invalid, errors);
+    }
+
+    /**
+     * Hands every saved city to the consumer in id order. Rows are read a page at a time
+     * by keyset, so the export never holds more than one page.
+     */
+    public void exportCities(Consumer<SavedCitySummary> consumer) {
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<SavedCitySummary> page = savedCityRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+            page.forEach(consumer);
+            if (page.size() < batchSize) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).id();
+        }
+    }
+
+    private int saveChunk(Map<String, SavedCity> chunk) {
+        return savedCityRepository.insertAllIfAbsent(new ArrayList<>(chunk.values()));
+    }
+}
@@ -1,41 +1,80 @@
 package com.WeatherDashboard.WeatherDashboard.service;
 
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.TtlCache;
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityPage;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
 import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
 import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
 import com.WeatherDashboard.WeatherDashboard.repository.SavedCityRepository;
 import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
 public class SavedCityService {
 
     private final SavedCityRepository savedCityRepository;
     private final WeatherService weatherService;
+    private final ExecutorService weatherExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore weatherPermits;
+    private final Duration weatherTimeout;
+    private final int pageSize;
+    private final int maxPageSize;
+    // Latest weather per saved city id, kept warm by SavedCityWeatherRefresher.
+    // Expired snapshots are fetched live again, so one failed refresh is not served forever.
+    private final TtlCache<Long, Map<String, Object>> snapshots;
 
     @Autowired
-    public SavedCityService(SavedCityRepository savedCityRepository, WeatherService weatherService) {
+    public SavedCityService(SavedCityRepository savedCityRepository,
+                            WeatherService weatherService,
+                            @Value("${saved-cities.weather.max-concurrency:8}") int maxConcurrency,
+                            @Value("${saved-cities.weather.timeout-ms:5000}") long timeoutMs,
+                            @Value("${saved-cities.page.size:100}") int pageSize,
+                            @Value("${saved-cities.page.max-size:500}") int maxPageSize,
+                            @Value("${saved-cities.snapshot.max-size:10000}") int snapshotMaxSize,
+                            @Value("${saved-cities.snapshot.ttl-ms:1800000}") long snapshotTtlMs) {
+        this(savedCityRepository, weatherService, maxConcurrency, Duration.ofMillis(timeoutMs), pageSize, maxPageSize,
+                snapshotMaxSize, Duration.ofMillis(snapshotTtlMs), Clock.systemUTC());
+    }
+
+    SavedCityService(SavedCityRepository savedCityRepository, WeatherService weatherService, int maxConcurrency,
+                     Duration weatherTimeout, int pageSize, int maxPageSize, int snapshotMaxSize,
+                     Duration snapshotTtl, Clock clock) {
         this.savedCityRepository = savedCityRepository;
         this.weatherService = weatherService;
+        this.weatherPermits = new Semaphore(maxConcurrency);
+        this.weatherTimeout = weatherTimeout;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.pageSize = Math.max(1, Math.min(pageSize, this.maxPageSize));
+        this.snapshots = new TtlCache<>(snapshotMaxSize, snapshotTtl, clock);
     }
 
     @Transactional
     public SavedCity saveCity(String cityName, double lat, double lon) {
-        // Check if city already exists
-        Optional<SavedCity> existing = savedCityRepository.findByCityNameIgnoreCase(cityName);
-        if (existing.isPresent()) {
-            throw new RuntimeException("City already saved: " + cityName);
-        }
-
-        SavedCity savedCity = new SavedCity(cityName, lat, lon);
-        return savedCityRepository.save(savedCity);
+        // One insert-if-absent instead of a lookup then an insert, which raced under concurrent posts
+        return savedCityRepository.insertIfAbsent(cityName, lat, lon)
+                .orElseThrow(() -> new RuntimeException("City already saved: " + cityName));
     }
 
     @Transactional
@@ -44,51 +83,166 @@ public class SavedCityService {
             throw new RuntimeException("Saved city not found with id: " + id);
         }
         savedCityRepository.deleteById(id);
+        snapshots.invalidate(id);
     }
 
-    public List<SavedCity> getAllSavedCities() {
-        return savedCityRepository.findAll();
+    /**
+     * Saved cities after the given id, in id order, read as a projection.
+     */
+    public List<SavedCitySummary> getSavedCities(long afterId, int limit) {
+        return savedCityRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(clampLimit(limit)));
     }
 
-    public List<Map<String, Object>> getAllSavedCitiesWithWeather() {
-        List<SavedCity> savedCities = savedCityRepository.findAll();
-        List<Map<String, Object>> citiesWithWeather = new ArrayList<>();
+    /**
+     * One keyset page of saved cities with weather. Reads the snapshots kept warm by
+     * SavedCityWeatherRefresher, so this does not call upstream for cities that have
+     * already been refreshed. Only cities the refresher has not reached yet (e.g. just
+     * saved) are fetched live.
+     */
+    public SavedCityPage getSavedCitiesWithWeather(long afterId, int limit) {
+        int size = clampLimit(limit);
+        // One extra row tells us whether there is a next page without a count query
+        List<SavedCitySummary> savedCities = savedCityRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+        boolean more = savedCities.size() > size;
+        if (more) {
+            savedCities = savedCities.subList(0, size);
+        }
+        List<Map<String, Object>> citiesWithWeather = new ArrayList<>(savedCities.size());
+        writeCityData(savedCities, true, citiesWithWeather::add);
+        Long nextCursor = more ? savedCities.get(savedCities.size() - 1).id() : null;
+        return new SavedCityPage(citiesWithWeather, nextCursor);
+    }
 
-        for (SavedCity savedCity : savedCities) {
+    /**
+     * Hands every saved city with weather to the consumer in id order, as each one is
+     * resolved. Cities are read one keyset page at a time, so memory stays flat
+     * however many are saved.
+     */
+    public void streamSavedCitiesWithWeather(Consumer<Map<String, Object>> consumer) {
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<SavedCitySummary> page = savedCityRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize));
+            writeCityData(page, true, consumer);
+            if (page.size() < pageSize) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).id();
+        }
+    }
+
+    /**
+     * Fetches current weather for the given cities and stores a snapshot for each one
+     * that succeeds. A failed fetch keeps the previous snapshot, if any.
+     * @return the fetched city data in input order, with error entries for failures
+     */
+    public List<Map<String, Object>> refreshSnapshots(List<SavedCitySummary> savedCities) {
+        List<Map<String, Object>> results = new ArrayList<>(savedCities.size());
+        writeCityData(savedCities, false, results::add);
+        return results;
+    }
+
+    /**
+     * Emits city data in input order. Live fetches all start up front and share one
+     * deadline, so each city is written as soon as it and the ones before it are done.
+     * @param useSnapshots serve cities that already have a snapshot from it instead of fetching
+     */
+    private void writeCityData(List<SavedCitySummary> savedCities, boolean useSnapshots,
+                               Consumer<Map<String, Object>> consumer) {
+        // Fetch every city concurrently; the semaphore keeps us from flooding the upstream
+        CallPriority priority = CallPriority.current();
+        List<CachedValue<Map<String, Object>>> cached = new ArrayList<>(savedCities.size());
+        List<Future<WeatherDTO>> pending = new ArrayList<>(savedCities.size());
+        for (int i = 0; i < savedCities.size(); i++) {
+            SavedCitySummary savedCity = savedCities.get(i);
+            CachedValue<Map<String, Object>> snapshot = useSnapshots ? snapshots.getEntry(savedCity.id(), Duration.ZERO) : null;
+            cached.add(snapshot);
+            pending.add(snapshot != null ? null : weatherExecutor.submit(priority.wrap(() -> fetchWeather(savedCity))));
+        }
+
+        long deadline = System.nanoTime() + weatherTimeout.toNanos();
+        for (int i = 0; i < savedCities.size(); i++) {
+            if (cached.get(i) != null) {
+                consumer.accept(withAsOf(cached.get(i)));
+                continue;
+            }
+            SavedCitySummary savedCity = savedCities.get(i);
+            Future<WeatherDTO> future = pending.get(i);
             try {
-                // IMPORTANT: Use coordinates instead of city name to ensure we get the correct city
-                // This prevents getting a different city with the same name in a different state
-                double lat = savedCity.getLatitude();
-                double lon = savedCity.getLongitude();
-                String locationQuery = lat + "," + lon;
-                
-                WeatherDTO weather = weatherService.getWeather(locationQuery);
-                Map<String, Object> cityData = new HashMap<>();
-                cityData.put("id", savedCity.getId());
-                cityData.put("name", weather.city());
-                cityData.put("region", weather.region());
-                cityData.put("country", weather.country());
-                cityData.put("temp_f", weather.tempF());
-                cityData.put("temp_c", weather.tempC());
-                cityData.put("condition", weather.condition());
-                cityData.put("humidity", weather.humidity());
-                cityData.put("wind_mph", weather.windMph());
-                cityData.put("lat", weather.lat());
-                cityData.put("lon", weather.lon());
-                citiesWithWeather.add(cityData);
-            } catch (Exception e) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                Map<String, Object> cityData = toCityData(savedCity, future.get(remaining, TimeUnit.NANOSECONDS));
+                snapshots.put(savedCity.id(), cityData);
+                consumer.accept(cityData);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                consumer.accept(toErrorData(savedCity, "timed out after " + weatherTimeout.toMillis() + "ms"));
+            } catch (ExecutionException e) {
                 // If weather fetch fails, still include the city but with error info
-                Map<String, Object> cityData = new HashMap<>();
-                cityData.put("id", savedCity.getId());
-                cityData.put("name", savedCity.getCityName());
-                cityData.put("lat", savedCity.getLatitude());
-                cityData.put("lon", savedCity.getLongitude());
-                cityData.put("error", "Failed to fetch weather: " + e.getMessage());
-                citiesWithWeather.add(cityData);
+                consumer.accept(toErrorData(savedCity, e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                consumer.accept(toErrorData(savedCity, "interrupted"));
             }
         }
+    }
 
-        return citiesWithWeather;
+    /**
+     * Page size when a client asks for a page without a limit (saved-cities.page.size).
+     */
+    public int defaultPageSize() {
+        return pageSize;
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
     }
-}
 
+    @PreDestroy
+    void shutdown() {
+        weatherExecutor.shutdownNow();
+    }
+
+    private WeatherDTO fetchWeather(SavedCitySummary savedCity) throws InterruptedException {
+        weatherPermits.acquire();
+        try {
+            // IMPORTANT: Use coordinates instead of city name to ensure we get the correct city
+            // This prevents getting a different city with the same name in a different state
+            String locationQuery = savedCity.latitude() + "," + savedCity.longitude();
+            return weatherService.getWeather(locationQuery);
+        } finally {
+            weatherPermits.release();
+        }
+    }
+
+    private Map<String, Object> toCityData(SavedCitySummary savedCity, WeatherDTO weather) {
+        Map<String, Object> cityData = new HashMap<>();
+        cityData.put("id", savedCity.id());
+        cityData.put("name", weather.city());
+        cityData.put("region", weather.region());
+        cityData.put("country", weather.country());
+        cityData.put("temp_f", weather.tempF());
+        cityData.put("temp_c", weather.tempC());
+        cityData.put("condition", weather.condition());
+        cityData.put("humidity", weather.humidity());
+        cityData.put("wind_mph", weather.windMph());
+        cityData.put("lat", weather.lat());
+        cityData.put("lon", weather.lon());
+        return cityData;
+    }
+
+    private Map<String, Object> toErrorData(SavedCitySummary savedCity, String message) {
+        Map<String, Object> cityData = new HashMap<>();
+        cityData.put("id", savedCity.id());
+        cityData.put("name", savedCity.cityName());
+        cityData.put("lat", savedCity.latitude());
+        cityData.put("lon", savedCity.longitude());
+        cityData.put("error", "Failed to fetch weather: " + message);
+        return cityData;
+    }
+
+    private static Map<String, Object> withAsOf(CachedValue<Map<String, Object>> snapshot) {
+        Map<String, Object> copy = new HashMap<>(snapshot.value());
+        copy.put("as_of", snapshot.fetchedAt().toString());
+        return copy;
+    }
+}
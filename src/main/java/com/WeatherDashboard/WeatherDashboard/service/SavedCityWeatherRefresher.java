@@ -0,0 +1,79 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Periodically refreshes the weather snapshots behind /saved-cities.
+ * Cities are refreshed in batches with a jittered pause between batches, so a
+ * large account spreads its upstream calls out instead of bursting the quota.
+ */
+@Component
+public class SavedCityWeatherRefresher {
+    private static final Logger log = LoggerFactory.getLogger(SavedCityWeatherRefresher.class);
+
+    private final SavedCityService savedCityService;
+    private final int batchSize;
+    private final long batchPauseMs;
+
+    @Autowired
+    public SavedCityWeatherRefresher(SavedCityService savedCityService,
+                                     @Value("${saved-cities.refresh.batch-size:10}") int batchSize,
+                                     @Value("${saved-cities.refresh.batch-pause-ms:2000}") long batchPauseMs) {
+        this.savedCityService = savedCityService;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPauseMs = batchPauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${saved-cities.refresh.initial-delay-ms:5000}",
+               fixedDelayString = "${saved-cities.refresh.interval-ms:600000}")
+    public void refreshAll() {
+        // Walk the cities one keyset page per batch, so only a batch is ever loaded
+        long lastId = Long.MIN_VALUE;
+        int refreshed = 0;
+        while (true) {
+            List<SavedCitySummary> batch = savedCityService.getSavedCities(lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            if (refreshed > 0 && !pause()) {
+                return;
+            }
+            try {
+                CallPriority.BACKGROUND.run(() -> savedCityService.refreshSnapshots(batch));
+            } catch (RuntimeException e) {
+                log.warn("Refreshing saved cities batch after id {} failed: {}", lastId, e.getMessage());
+            }
+            refreshed += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).id();
+        }
+        log.debug("Refreshed weather for {} saved cities", refreshed);
+    }
+
+    // Pause between 50% and 150% of the configured value so refreshes don't line up
+    private boolean pause() {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+        long jittered = batchPauseMs / 2 + ThreadLocalRandom.current().nextLong(batchPauseMs + 1);
+        try {
+            Thread.sleep(jittered);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.dto.BatchWeatherResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Resolves current weather for many locations in one call. Duplicate locations
+ * (same city name or the same ~1km cell) are fetched once, lookups run on virtual
+ * threads behind a semaphore, and anything still running at the deadline is
+ * reported as a timeout instead of holding up the whole batch.
+ */
+@Service
+public class WeatherBatchService {
+
+    private final WeatherService weatherService;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxItems;
+    private final Duration timeout;
+
+    @Autowired
+    public WeatherBatchService(WeatherService weatherService,
+                               @Value("${weather.batch.max-items:300}") int maxItems,
+                               @Value("${weather.batch.max-concurrency:16}") int maxConcurrency,
+                               @Value("${weather.batch.timeout-ms:8000}") long timeoutMs) {
+        this.weatherService = weatherService;
+        this.maxItems = maxItems;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /**
+     * Validates a batch and drops duplicates, keeping the first spelling of each location.
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public List<String> uniqueQueries(List<String> queries) {
+        if (queries == null || queries.isEmpty()) {
+            throw new IllegalArgumentException("At least one location is required");
+        }
+        if (queries.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " locations per batch");
+        }
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String query : queries) {
+            if (query == null || query.isBlank()) {
+                throw new IllegalArgumentException("Locations must not be blank");
+            }
+            unique.putIfAbsent(LocationKey.normalize(query), query.trim());
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    /**
+     * @return one result per unique location, in request order
+     */
+    public List<BatchWeatherResult> getWeather(List<String> queries) {
+        List<String> unique = uniqueQueries(queries);
+        Map<String, BatchWeatherResult> byQuery = new HashMap<>();
+        resolve(unique, result -> byQuery.put(result.query(), result));
+
+        List<BatchWeatherResult> results = new ArrayList<>(unique.size());
+        for (String query : unique) {
+            results.add(byQuery.get(query));
+        }
+        return results;
+    }
+
+    /**
+     * Hands results to the sink as they complete, so fast locations are not held back
+     * by slow ones. The sink is always called from the calling thread.
+     */
+    public void streamWeather(List<String> queries, Consumer<BatchWeatherResult> sink) {
+        resolve(uniqueQueries(queries), sink);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    private void resolve(List<String> queries, Consumer<BatchWeatherResult> sink) {
+        BlockingQueue<BatchWeatherResult> completed = new LinkedBlockingQueue<>();
+        List<Future<?>> pending = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            pending.add(batchExecutor.submit(() -> completed.add(fetch(query))));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<String> delivered = new HashSet<>();
+        try {
+            while (delivered.size() < queries.size()) {
+                long remaining = deadline - System.nanoTime();
+                BatchWeatherResult result = completed.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    break;
+                }
+                delivered.add(result.query());
+                sink.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<?> future : pending) {
+                future.cancel(true);
+            }
+        }
+
+        for (String query : queries) {
+            if (!delivered.contains(query)) {
+                sink.accept(BatchWeatherResult.error(query, BatchWeatherResult.TIMEOUT,
+                        "timed out after " + timeout.toMillis() + "ms"));
+            }
+        }
+    }
+
+    private BatchWeatherResult fetch(String query) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchWeatherResult.error(query, BatchWeatherResult.ERROR, "interrupted");
+        }
+        try {
+            return BatchWeatherResult.ok(query, weatherService.getWeather(query));
+        } catch (Exception e) {
+            return BatchWeatherResult.error(query, BatchWeatherResult.ERROR, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+}
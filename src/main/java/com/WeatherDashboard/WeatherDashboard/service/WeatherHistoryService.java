@@ -0,0 +1,140 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.dto.HistoryBucketDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherObservation;
+import com.WeatherDashboard.WeatherDashboard.repository.WeatherObservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every fetched WeatherDTO as an observation and answers history queries.
+ * Observations are keyed by the normalized location that was asked for (see
+ * {@link LocationKey}), not by the coordinates the provider resolved it to, so a
+ * history query for the same city or "lat,lon" finds them.
+ * Writes go through a bounded write-behind queue drained by one background thread
+ * in JDBC batches, so request threads never wait on the database. If the queue is
+ * full the observation is dropped and counted rather than blocking the caller.
+ */
+@Service
+public class WeatherHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(WeatherHistoryService.class);
+    // Width of weather_observations.location_key
+    private static final int MAX_LOCATION_KEY_LENGTH = 255;
+
+    private final WeatherObservationRepository observationRepository;
+    private final BlockingQueue<WeatherObservation> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    @Autowired
+    public WeatherHistoryService(WeatherObservationRepository observationRepository,
+                                 @Value("${weather.history.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${weather.history.batch-size:500}") int batchSize,
+                                 @Value("${weather.history.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.observationRepository = observationRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+        this.writer = Thread.ofPlatform().name("weather-history-writer").daemon().start(this::drainLoop);
+    }
+
+    public void record(String locationKey, WeatherDTO weather) {
+        if (locationKey.length() > MAX_LOCATION_KEY_LENGTH) {
+            // Would fail the whole batch it lands in
+            dropped.incrementAndGet();
+            return;
+        }
+        WeatherObservation observation = new WeatherObservation(
+                locationKey,
+                weather.city(),
+                weather.region(),
+                weather.country(),
+                weather.lat(),
+                weather.lon(),
+                weather.tempF(),
+                weather.tempC(),
+                weather.condition(),
+                weather.humidity(),
+                weather.windMph(),
+                Instant.now());
+        if (!queue.offer(observation)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public List<HistoryBucketDTO> getHistory(String location, Instant from, Instant to, Duration bucket) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (bucket.getSeconds() < 60) {
+            throw new IllegalArgumentException("Bucket must be at least one minute");
+        }
+        return observationRepository.findHistory(LocationKey.normalize(location), from, to, bucket.getSeconds());
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(flushInterval.toMillis() * 5);
+        // Write whatever is left so a clean shutdown loses nothing
+        flush(new ArrayList<>(queue));
+    }
+
+    private void drainLoop() {
+        List<WeatherObservation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                WeatherObservation first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<WeatherObservation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            observationRepository.insertBatch(batch);
+        } catch (RuntimeException e) {
+            dropped.addAndGet(batch.size());
+            log.warn("Could not write {} weather observations: {}", batch.size(), e.getMessage());
+        }
+    }
+}
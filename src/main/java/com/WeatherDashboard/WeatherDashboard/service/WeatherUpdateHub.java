@@ -0,0 +1,286 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.cache.LocationKey;
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans live weather updates out to subscribers (the /weather/stream SSE endpoint).
+ *
+ * There is one refresh loop per distinct location, however many subscribers watch it;
+ * the loop starts with the first subscriber and stops with the last. After the initial
+ * snapshot, subscribers only receive the fields that changed. Idle subscribers hold no
+ * thread: refreshes run on virtual threads and a single scheduler thread drives the loops.
+ */
+@Service
+public class WeatherUpdateHub {
+    private static final Logger log = LoggerFactory.getLogger(WeatherUpdateHub.class);
+
+    public static final String SNAPSHOT_EVENT = "weather";
+    public static final String DELTA_EVENT = "delta";
+
+    /**
+     * Where a subscription's events go. Any exception ends the subscription.
+     */
+    public interface Listener {
+        void send(String event, Object data) throws IOException;
+
+        void ping() throws IOException;
+    }
+
+    private final WeatherService weatherService;
+    private final Duration refreshInterval;
+    private final int maxLocations;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("weather-updates").daemon().factory());
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WeatherUpdateHub(WeatherService weatherService,
+                            @Value("${weather.stream.refresh-interval-ms:60000}") long refreshIntervalMs,
+                            @Value("${weather.stream.heartbeat-ms:25000}") long heartbeatMs,
+                            @Value("${weather.stream.max-locations:20}") int maxLocations) {
+        this.weatherService = weatherService;
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+        this.maxLocations = maxLocations;
+        // Comments keep proxies from closing idle streams and reveal clients that went away
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts watching the locations. Locations that already have a value are sent to the
+     * new listener right away; the rest arrive with their first refresh.
+     * @throws IllegalArgumentException if there are no locations or too many
+     */
+    public Subscription subscribe(List<String> locations, Listener listener) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String location : locations) {
+            if (location != null && !location.isBlank()) {
+                unique.putIfAbsent(LocationKey.normalize(location), location.trim());
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("At least one location is required");
+        }
+        if (unique.size() > maxLocations) {
+            throw new IllegalArgumentException("At most " + maxLocations + " locations per stream");
+        }
+
+        Subscription subscription = new Subscription(List.copyOf(unique.keySet()), listener);
+        subscriptions.add(subscription);
+        for (Map.Entry<String, String> location : unique.entrySet()) {
+            Watch watch = watches.compute(location.getKey(), (key, existing) -> {
+                Watch w = existing != null ? existing : startWatch(key, location.getValue());
+                w.subscribers.add(subscription);
+                return w;
+            });
+            WeatherDTO current = watch.last;
+            if (current != null) {
+                subscription.send(SNAPSHOT_EVENT, snapshot(watch.key, current));
+            }
+        }
+        return subscription;
+    }
+
+    public int watchedLocationCount() {
+        return watches.size();
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    private Watch startWatch(String key, String query) {
+        Watch watch = new Watch(key, query);
+        watch.task = scheduler.scheduleWithFixedDelay(
+                () -> refreshExecutor.execute(() -> CallPriority.BACKGROUND.run(() -> refresh(watch))),
+                0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        return watch;
+    }
+
+    private void refresh(Watch watch) {
+        // A slow upstream call must not overlap with the next tick for the same location
+        if (!watch.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            WeatherDTO next;
+            try {
+                next = weatherService.getWeather(watch.query);
+            } catch (Exception e) {
+                // Subscribers keep the last value; the next tick tries again
+                log.debug("Refresh failed for {}: {}", watch.key, e.getMessage());
+                return;
+            }
+            WeatherDTO previous = watch.last;
+            watch.last = next;
+            if (previous == null) {
+                broadcast(watch, SNAPSHOT_EVENT, snapshot(watch.key, next));
+                return;
+            }
+            Map<String, Object> changes = diff(previous, next);
+            if (!changes.isEmpty()) {
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("location", watch.key);
+                delta.put("changes", changes);
+                broadcast(watch, DELTA_EVENT, delta);
+            }
+        } finally {
+            watch.refreshing.set(false);
+        }
+    }
+
+    private void broadcast(Watch watch, String event, Object data) {
+        for (Subscription subscription : watch.subscribers) {
+            subscription.send(event, data);
+        }
+    }
+
+    private void heartbeat() {
+        // Writes to a slow client can block, so keep them off the scheduler thread
+        for (Subscription subscription : subscriptions) {
+            refreshExecutor.execute(subscription::ping);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        for (String key : subscription.keys) {
+            watches.computeIfPresent(key, (k, watch) -> {
+                watch.subscribers.remove(subscription);
+                if (!watch.subscribers.isEmpty()) {
+                    return watch;
+                }
+                // Last subscriber gone: stop polling this location
+                watch.task.cancel(false);
+                return null;
+            });
+        }
+    }
+
+    private static Map<String, Object> snapshot(String key, WeatherDTO weather) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("location", key);
+        data.put("weather", weather);
+        return data;
+    }
+
+    /**
+     * Fields of next that differ from previous, keyed by their JSON names.
+     */
+    static Map<String, Object> diff(WeatherDTO previous, WeatherDTO next) {
+        Map<String, Object> before = fields(previous);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        fields(next).forEach((name, value) -> {
+            if (!Objects.equals(before.get(name), value)) {
+                changes.put(name, value);
+            }
+        });
+        return changes;
+    }
+
+    private static Map<String, Object> fields(WeatherDTO weather) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", weather.city());
+        fields.put("region", weather.region());
+        fields.put("country", weather.country());
+        fields.put("temp_f", weather.tempF());
+        fields.put("temp_c", weather.tempC());
+        fields.put("condition", weather.condition());
+        fields.put("humidity", weather.humidity());
+        fields.put("wind_mph", weather.windMph());
+        fields.put("lat", weather.lat());
+        fields.put("lon", weather.lon());
+        return fields;
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final List<String> keys;
+        private final Listener listener;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(List<String> keys, Listener listener) {
+            this.keys = keys;
+            this.listener = listener;
+        }
+
+        public List<String> locations() {
+            return keys;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+            }
+        }
+
+        private void send(String event, Object data) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                // One subscription can be fed by several locations' refreshes at once
+                synchronized (this) {
+                    listener.send(event, data);
+                }
+            } catch (Exception e) {
+                close();
+            }
+        }
+
+        private void ping() {
+            try {
+                synchronized (this) {
+                    listener.ping();
+                }
+            } catch (Exception e) {
+                close();
+            }
+        }
+    }
+
+    private static final class Watch {
+        private final String key;
+        private final String query;
+        private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile WeatherDTO last;
+        private ScheduledFuture<?> task;
+
+        private Watch(String key, String query) {
+            this.key = key;
+            this.query = query;
+        }
+    }
+}
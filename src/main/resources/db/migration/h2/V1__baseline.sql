@@ -0,0 +1,10 @@
+-- Same schema as postgresql/V1__baseline.sql, for the embedded database used in tests.
+
+CREATE SEQUENCE IF NOT EXISTS saved_cities_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS saved_cities (
+    id BIGINT PRIMARY KEY,
+    city_name VARCHAR(255) NOT NULL,
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL
+);
@@ -0,0 +1,4 @@
+-- H2 has no expression indexes, so index a generated lower-case column instead.
+-- Same effect as the lower(city_name) index on Postgres.
+ALTER TABLE saved_cities ADD COLUMN IF NOT EXISTS city_name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(city_name));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_saved_cities_lower_city_name ON saved_cities (city_name_lower);
@@ -0,0 +1,19 @@
+-- Same columns as postgresql/V3__weather_observations.sql. H2 has no declarative
+-- partitioning, so this is a plain table.
+CREATE TABLE IF NOT EXISTS weather_observations (
+    location_key VARCHAR(32) NOT NULL,
+    city_name VARCHAR(255),
+    region VARCHAR(255),
+    country VARCHAR(255),
+    lat DOUBLE PRECISION NOT NULL,
+    lon DOUBLE PRECISION NOT NULL,
+    temp_f DOUBLE PRECISION NOT NULL,
+    temp_c DOUBLE PRECISION NOT NULL,
+    condition_text VARCHAR(255),
+    humidity INTEGER NOT NULL,
+    wind_mph DOUBLE PRECISION NOT NULL,
+    observed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_weather_observations_location_time
+    ON weather_observations (location_key, observed_at);
@@ -0,0 +1,8 @@
+-- Same table as postgresql/V4__region_cells.sql, for the embedded database used in tests.
+
+CREATE TABLE IF NOT EXISTS region_cells (
+    cell VARCHAR(12) PRIMARY KEY,
+    region VARCHAR(255) NOT NULL,
+    country VARCHAR(255),
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Same change as postgresql/V5__weather_observations_location_key_length.sql.
+ALTER TABLE weather_observations ALTER COLUMN location_key SET DATA TYPE VARCHAR(255);
@@ -0,0 +1,12 @@
+-- saved_cities for an empty database, with the id sequence V2 adds to older ones.
+-- Databases created by ddl-auto=update are baselined at this version and skip it,
+-- so anything they lack goes into a later migration.
+
+CREATE SEQUENCE IF NOT EXISTS saved_cities_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS saved_cities (
+    id BIGINT PRIMARY KEY,
+    city_name VARCHAR(255) NOT NULL,
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL
+);
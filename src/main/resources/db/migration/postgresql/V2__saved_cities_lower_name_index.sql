@@ -0,0 +1,45 @@
+-- Names that differ only in case would block the new index. They are user data, so
+-- stop here and list them rather than pick one; the whole migration is rolled back.
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('%s (ids %s)', names, ids), '; ')
+    INTO conflicts
+    FROM (SELECT string_agg(city_name, ', ' ORDER BY id) AS names,
+                 string_agg(id::text, ', ' ORDER BY id) AS ids
+          FROM saved_cities
+          GROUP BY lower(city_name)
+          HAVING count(*) > 1) duplicates;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'saved_cities has names that differ only in case: %', conflicts
+            USING HINT = 'Delete or rename all but one of each, then start the app again';
+    END IF;
+END $$;
+
+-- Databases created before saved_cities_seq took their ids from an IDENTITY column.
+-- Hibernate now supplies every id, so drop the identity and move the sequence past existing rows.
+ALTER TABLE saved_cities ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS saved_cities_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('saved_cities_seq',
+              GREATEST((SELECT last_value FROM saved_cities_seq),
+                       (SELECT COALESCE(MAX(id), 0) FROM saved_cities) + 50));
+
+
+-- The case-sensitive unique constraint from @Column(unique = true) has a generated name
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'saved_cities'::regclass AND con.contype = 'u' AND att.attname = 'city_name'
+    LOOP
+        EXECUTE format('ALTER TABLE saved_cities DROP CONSTRAINT %I', c.conname);
+    END LOOP;
+END $$;
+
+-- Serves case-insensitive lookups and lets INSERT ... ON CONFLICT reject duplicate names atomically
+CREATE UNIQUE INDEX IF NOT EXISTS ux_saved_cities_lower_city_name ON saved_cities (lower(city_name));
@@ -0,0 +1,20 @@
+-- Append-only history of fetched observations, partitioned by month on observed_at.
+-- Partitions are created by the app the first time it writes a month, so none are created here.
+CREATE TABLE IF NOT EXISTS weather_observations (
+    location_key VARCHAR(32) NOT NULL,
+    city_name VARCHAR(255),
+    region VARCHAR(255),
+    country VARCHAR(255),
+    lat DOUBLE PRECISION NOT NULL,
+    lon DOUBLE PRECISION NOT NULL,
+    temp_f DOUBLE PRECISION NOT NULL,
+    temp_c DOUBLE PRECISION NOT NULL,
+    condition_text VARCHAR(255),
+    humidity INTEGER NOT NULL,
+    wind_mph DOUBLE PRECISION NOT NULL,
+    observed_at TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (observed_at);
+
+-- Created on the parent, so every partition gets it
+CREATE INDEX IF NOT EXISTS idx_weather_observations_location_time
+    ON weather_observations (location_key, observed_at);
@@ -0,0 +1,8 @@
+-- Geohash cells of nearby-city lookups and the region they resolved to.
+-- Its own migration because databases baselined at V1 never run V1.
+CREATE TABLE IF NOT EXISTS region_cells (
+    cell VARCHAR(12) PRIMARY KEY,
+    region VARCHAR(255) NOT NULL,
+    country VARCHAR(255),
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Observations are keyed by the location they were requested by, which can be a city
+-- name rather than a grid cell, so the key needs the same room as a city name.
+ALTER TABLE weather_observations ALTER COLUMN location_key SET DATA TYPE VARCHAR(255);
@@ -0,0 +1,87 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.MutableClock;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedResponsesTest {
+
+    private static final Instant FETCHED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private CachedResponses cachedResponses;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(FETCHED_AT);
+        cachedResponses = new CachedResponses(new ObjectMapper(), Duration.ofSeconds(60), 100, clock);
+    }
+
+    private static WeatherDTO weather(double tempF) {
+        return new WeatherDTO("London", "Greater London", "United Kingdom",
+                tempF, (tempF - 32) * 5 / 9, "Sunny", 50, 5.0, 51.52, -0.11);
+    }
+
+    @Test
+    void testOk_MaxAgeIsRemainingTtl() {
+        // Arrange
+        CachedValue<WeatherDTO> cached = new CachedValue<>(weather(68.0), FETCHED_AT, FETCHED_AT.plusSeconds(300), false);
+        clock.advance(Duration.ofSeconds(120));
+
+        // Act
+        ResponseEntity<WeatherDTO> response = cachedResponses.ok("weather|london", cached, null);
+
+        // Assert
+        HttpHeaders headers = response.getHeaders();
+        assertEquals("max-age=180, public, stale-while-revalidate=60", headers.getCacheControl());
+        assertEquals(FETCHED_AT.toEpochMilli(), headers.getLastModified());
+        assertNotNull(headers.getETag());
+        assertSame(cached.value(), response.getBody());
+    }
+
+    @Test
+    void testOk_ETagFollowsPayloadNotFetchTime() {
+        // Arrange
+        CachedValue<WeatherDTO> first = new CachedValue<>(weather(68.0), FETCHED_AT, FETCHED_AT.plusSeconds(300), false);
+        CachedValue<WeatherDTO> refetched = new CachedValue<>(weather(68.0), FETCHED_AT.plusSeconds(300), FETCHED_AT.plusSeconds(600), false);
+        CachedValue<WeatherDTO> changed = new CachedValue<>(weather(70.0), FETCHED_AT.plusSeconds(600), FETCHED_AT.plusSeconds(900), true);
+
+        // Act
+        ResponseEntity<WeatherDTO> firstResponse = cachedResponses.ok("weather|london", first, null);
+        ResponseEntity<WeatherDTO> refetchedResponse = cachedResponses.ok("weather|london", refetched, null);
+        ResponseEntity<WeatherDTO> changedResponse = cachedResponses.ok("weather|london", changed, null);
+
+        // Assert
+        assertEquals(firstResponse.getHeaders().getETag(), refetchedResponse.getHeaders().getETag());
+        assertNotEquals(firstResponse.getHeaders().getETag(), changedResponse.getHeaders().getETag());
+        assertTrue(changedResponse.getHeaders().getCacheControl().startsWith("max-age=0,"));
+    }
+
+    @Test
+    void testOk_EachWireFormatHasItsOwnETag() {
+        // Arrange
+        CachedValue<WeatherDTO> cached = new CachedValue<>(weather(68.0), FETCHED_AT, FETCHED_AT.plusSeconds(300), false);
+
+        // Act
+        ResponseEntity<WeatherDTO> json = cachedResponses.ok("weather|london", cached, "application/json");
+        ResponseEntity<WeatherDTO> cbor = cachedResponses.ok("weather|london", cached, "application/cbor, application/json;q=0.5");
+
+        // Assert
+        assertEquals(json.getHeaders().getETag(), cachedResponses.ok("weather|london", cached, null).getHeaders().getETag());
+        assertNotEquals(json.getHeaders().getETag(), cbor.getHeaders().getETag());
+        assertTrue(cbor.getHeaders().getETag().startsWith("W/\""));
+        assertTrue(cbor.getHeaders().getETag().endsWith("-cbor\""));
+        assertEquals(List.of(HttpHeaders.ACCEPT), cbor.getHeaders().getVary());
+    }
+}
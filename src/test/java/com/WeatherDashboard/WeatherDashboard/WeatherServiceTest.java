@@ -1,37 +1,81 @@
 package com.WeatherDashboard.WeatherDashboard;
 
+import com.WeatherDashboard.WeatherDashboard.cache.CachedValue;
+import com.WeatherDashboard.WeatherDashboard.cache.ForecastCache;
+import com.WeatherDashboard.WeatherDashboard.cache.InMemorySharedStore;
+import com.WeatherDashboard.WeatherDashboard.cache.MutableClock;
+import com.WeatherDashboard.WeatherDashboard.cache.SharedStore;
+import com.WeatherDashboard.WeatherDashboard.cache.SharedWeatherCache;
+import com.WeatherDashboard.WeatherDashboard.cache.TtlCache;
+import com.WeatherDashboard.WeatherDashboard.client.CallPriority;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamClient;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamException;
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamRejectedException;
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
 import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.geo.CityIndex;
+import com.WeatherDashboard.WeatherDashboard.provider.CurrentWeatherProviders;
+import com.WeatherDashboard.WeatherDashboard.provider.WeatherApiProvider;
+import com.WeatherDashboard.WeatherDashboard.service.RegionLookupService;
+import com.WeatherDashboard.WeatherDashboard.service.WeatherHistoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class WeatherServiceTest {
 
     @Mock
-    private RestTemplate restTemplate;
+    private UpstreamClient upstreamClient;
+
+    @Mock
+    private RegionLookupService regionLookupService;
+
+    @Mock
+    private WeatherHistoryService weatherHistoryService;
 
-    @InjectMocks
     private WeatherService weatherService;
 
     @BeforeEach
     void setUp() {
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5)), new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
         ReflectionTestUtils.setField(weatherService, "API_KEY", "test-api-key");
         ReflectionTestUtils.setField(weatherService, "GEO_CODING", "test-geo-key");
     }
 
+    private CurrentWeatherProviders providers() {
+        return new CurrentWeatherProviders(List.of(new WeatherApiProvider(upstreamClient, "test-api-key")),
+                List.of("weatherapi"), true, 800, 50, 3000, 0.1, new SimpleMeterRegistry());
+    }
+
     @Test
     void testGetWeather_Success() {
         // Arrange
@@ -56,7 +100,7 @@ class WeatherServiceTest {
         mockResponse.put("location", location);
         mockResponse.put("current", current);
 
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        when(upstreamClient.getJson(any(), anyString()))
                 .thenReturn(mockResponse);
 
         // Act
@@ -73,12 +117,13 @@ class WeatherServiceTest {
         assertEquals(10.5, result.windMph());
         assertEquals(51.5074, result.lat());
         assertEquals(-0.1278, result.lon());
+        verify(weatherHistoryService).record("london", result);
     }
 
     @Test
     void testGetWeather_ThrowsException_WhenApiFails() {
         // Arrange
-        when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        when(upstreamClient.getJson(any(), anyString()))
                 .thenThrow(new RuntimeException("API Error"));
 
         // Act & Assert
@@ -86,5 +131,304 @@ class WeatherServiceTest {
             weatherService.getWeather("InvalidCity");
         });
     }
-}
 
+    private static Map<String, Object> nearbyCity(String name, double lat, double lon) {
+        Map<String, Object> coord = new HashMap<>();
+        coord.put("lat", lat);
+        coord.put("lon", lon);
+        Map<String, Object> city = new HashMap<>();
+        city.put("name", name);
+        city.put("coord", coord);
+        return city;
+    }
+
+    private static Map<String, Object> currentResponse(String name, String region, double lat, double lon) {
+        Map<String, Object> location = new HashMap<>();
+        location.put("name", name);
+        location.put("region", region);
+        location.put("country", "United States of America");
+        location.put("lat", lat);
+        location.put("lon", lon);
+        Map<String, Object> condition = new HashMap<>();
+        condition.put("text", "Sunny");
+        Map<String, Object> current = new HashMap<>();
+        current.put("temp_f", 68.0);
+        current.put("temp_c", 20.0);
+        current.put("humidity", 65);
+        current.put("wind_mph", 10.5);
+        current.put("condition", condition);
+        Map<String, Object> response = new HashMap<>();
+        response.put("location", location);
+        response.put("current", current);
+        return response;
+    }
+
+    @Test
+    void testGetNearbyCities_FiltersByRegionInDistanceOrder() {
+        // Arrange
+        Map<String, Object> findResponse = new HashMap<>();
+        findResponse.put("list", List.of(
+                nearbyCity("Far Match", 40.072, -75.0),
+                nearbyCity("Close", 40.018, -75.0),
+                nearbyCity("Other State", 40.09, -75.0)));
+        when(upstreamClient.getJson(any(), contains("/data/2.5/find"))).thenReturn(findResponse);
+        when(upstreamClient.getJson(any(), contains("q=40.072")))
+                .thenReturn(currentResponse("Far Match", "Pennsylvania", 40.072, -75.0));
+        when(upstreamClient.getJson(any(), contains("q=40.09")))
+                .thenReturn(currentResponse("Other State", "New Jersey", 40.09, -75.0));
+
+        // Act
+        Map<String, Object> result = weatherService.getNearbyCities(40.0, -75.0, "pennsylvania");
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> cities = (List<Map<String, Object>>) result.get("list");
+        assertEquals(2, result.get("count"));
+        assertEquals("Close", cities.get(0).get("name"));
+        assertEquals("Far Match", cities.get(1).get("name"));
+        assertFalse(cities.get(0).containsKey("_distance"));
+    }
+
+    @Test
+    void testGetNearbyCities_UsesKnownRegionWithoutUpstreamCall() {
+        // Arrange
+        Map<String, Object> findResponse = new HashMap<>();
+        findResponse.put("list", List.of(nearbyCity("Far Match", 40.072, -75.0)));
+        when(upstreamClient.getJson(any(), contains("/data/2.5/find"))).thenReturn(findResponse);
+        when(regionLookupService.findRegion(40.072, -75.0)).thenReturn(Optional.of("Pennsylvania"));
+
+        // Act
+        Map<String, Object> result = weatherService.getNearbyCities(40.0, -75.0, "Pennsylvania");
+
+        // Assert
+        assertEquals(1, result.get("count"));
+        verify(upstreamClient, never()).getJson(any(), contains("current.json"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetNearbyCities_AnswersFromGazetteerWithoutFindCall() throws IOException {
+        // Arrange
+        String gazetteer = """
+                name,region,country,lat,lon,population
+                Near Town,New Jersey,USA,40.01,-75.0,1000
+                In Region,Pennsylvania,USA,40.08,-75.0,2000
+                Out Of Region,New Jersey,USA,40.09,-75.0,3000
+                Second,Pennsylvania,USA,40.1,-75.0,1000
+                Third,Pennsylvania,USA,40.11,-75.0,1000
+                Fourth,Pennsylvania,USA,40.12,-75.0,1000
+                Fifth,Pennsylvania,USA,40.13,-75.0,1000
+                """;
+        CityIndex cityIndex = CityIndex.load(new ByteArrayInputStream(gazetteer.getBytes(StandardCharsets.UTF_8)));
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5)),
+                new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, cityIndex, providers(), ConditionRegistry.empty());
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("Some City", "Somewhere", 40.0, -75.0));
+
+        // Act
+        Map<String, Object> result = weatherService.getNearbyCities(40.0, -75.0, "Pennsylvania");
+
+        // Assert
+        List<Map<String, Object>> list = (List<Map<String, Object>>) result.get("list");
+        assertEquals(List.of("Near Town", "In Region", "Second", "Third", "Fourth", "Fifth"),
+                list.stream().map(city -> city.get("name")).toList());
+        assertEquals(68.0, ((Map<String, Object>) list.get(0).get("main")).get("temp"));
+        verify(upstreamClient, never()).getJson(any(), contains("/data/2.5/find"));
+    }
+
+    @Test
+    void testGetNearbyCities_FallsBackToFindWhenGazetteerHasFewCities() throws IOException {
+        // Arrange
+        String gazetteer = """
+                name,region,country,lat,lon,population
+                Only Town,Pennsylvania,USA,40.01,-75.0,1000
+                """;
+        CityIndex cityIndex = CityIndex.load(new ByteArrayInputStream(gazetteer.getBytes(StandardCharsets.UTF_8)));
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5)),
+                new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, cityIndex, providers(), ConditionRegistry.empty());
+        ReflectionTestUtils.setField(weatherService, "GEO_CODING", "test-geo-key");
+        Map<String, Object> findResponse = new HashMap<>();
+        findResponse.put("list", List.of(nearbyCity("Only Town", 40.01, -75.0), nearbyCity("Small Town", 40.02, -75.0)));
+        when(upstreamClient.getJson(any(), contains("/data/2.5/find"))).thenReturn(findResponse);
+
+        // Act
+        Map<String, Object> result = weatherService.getNearbyCities(40.0, -75.0, null);
+
+        // Assert
+        assertEquals(2, result.get("count"));
+        assertNull(result.get("source"));
+    }
+
+    @Test
+    void testGetWeather_ServesStaleWhenUpstreamRejects() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5), clock),
+                new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        ReflectionTestUtils.setField(weatherService, "API_KEY", "test-api-key");
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("London", "City of London, Greater London", 51.52, -0.11))
+                .thenThrow(new UpstreamRejectedException("weatherapi.current call rejected", UpstreamRejectedException.CIRCUIT_OPEN));
+        weatherService.getWeather("London");
+        clock.advance(Duration.ofMinutes(10));
+
+        // Act
+        WeatherDTO result = weatherService.getWeather("London");
+
+        // Assert
+        assertEquals("London", result.city());
+        verify(upstreamClient, times(2)).getJson(any(), contains("current.json"));
+    }
+
+    @Test
+    void testGetWeather_DoesNotServeStaleOnOrdinaryFailure() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5), clock),
+                new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        ReflectionTestUtils.setField(weatherService, "API_KEY", "test-api-key");
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("London", "City of London, Greater London", 51.52, -0.11))
+                .thenThrow(new UpstreamException("weatherapi.current returned HTTP 400", 400));
+        weatherService.getWeather("London");
+        clock.advance(Duration.ofMinutes(10));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> weatherService.getWeather("London"));
+    }
+
+    @Test
+    void testLookupWeather_ServesSlightlyStaleValueAndRefreshesInBackground() throws InterruptedException {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        TtlCache<String, WeatherDTO> cache = new TtlCache<>(100, Duration.ofMinutes(5), clock);
+        weatherService = new WeatherService(upstreamClient, cache,
+                new ForecastCache(100), SharedWeatherCache.disabled(), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        ReflectionTestUtils.setField(weatherService, "API_KEY", "test-api-key");
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("London", "City of London, Greater London", 51.52, -0.11))
+                .thenReturn(currentResponse("London", "Greater London", 51.52, -0.11));
+        weatherService.getWeather("London");
+        clock.advance(Duration.ofSeconds(330));
+
+        // Act
+        CachedValue<WeatherDTO> stale = weatherService.lookupWeather("London");
+
+        // Assert
+        assertTrue(stale.stale());
+        assertEquals("City of London, Greater London", stale.value().region());
+        verify(upstreamClient, timeout(2000).times(2)).getJson(any(), contains("current.json"));
+        for (int i = 0; i < 200 && cache.peek("london", Duration.ZERO) == null; i++) {
+            Thread.sleep(10);
+        }
+        CachedValue<WeatherDTO> refreshed = weatherService.lookupWeather("London");
+        assertFalse(refreshed.stale());
+        assertEquals("Greater London", refreshed.value().region());
+    }
+
+    @Test
+    void testGetWeather_RechecksCacheBeforeStartingAFlight() {
+        // Arrange: every lookup misses, like a caller whose miss raced with a flight that just ended
+        TtlCache<String, WeatherDTO> racingCache = new TtlCache<>(100, Duration.ofMinutes(5)) {
+            @Override
+            public synchronized CachedValue<WeatherDTO> getEntry(String key, Duration maxStale) {
+                return null;
+            }
+        };
+        weatherService = new WeatherService(upstreamClient, racingCache, new ForecastCache(100), SharedWeatherCache.disabled(),
+                regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("London", "Greater London", 51.52, -0.11));
+        weatherService.getWeather("London");
+
+        // Act
+        WeatherDTO second = weatherService.getWeather("London");
+
+        // Assert
+        assertEquals("London", second.city());
+        verify(upstreamClient, times(1)).getJson(any(), contains("current.json"));
+    }
+
+    @Test
+    void testGetWeather_InteractiveCallDoesNotJoinBackgroundFlight() throws Exception {
+        // Arrange
+        CountDownLatch backgroundStarted = new CountDownLatch(1);
+        CountDownLatch releaseBackground = new CountDownLatch(1);
+        List<CallPriority> priorities = new CopyOnWriteArrayList<>();
+        when(upstreamClient.getJson(any(), contains("current.json"))).thenAnswer(invocation -> {
+            priorities.add(CallPriority.current());
+            if (CallPriority.current() == CallPriority.BACKGROUND) {
+                backgroundStarted.countDown();
+                releaseBackground.await(5, TimeUnit.SECONDS);
+            }
+            return currentResponse("London", "Greater London", 51.52, -0.11);
+        });
+        Thread background = new Thread(() -> CallPriority.BACKGROUND.run(() -> weatherService.getWeather("London")));
+        background.start();
+        assertTrue(backgroundStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        WeatherDTO result = weatherService.getWeather("London");
+
+        // Assert
+        releaseBackground.countDown();
+        background.join(5000);
+        assertEquals("London", result.city());
+        assertEquals(List.of(CallPriority.BACKGROUND, CallPriority.INTERACTIVE), priorities);
+    }
+
+    @Test
+    void testGetWeather_OtherNodeUsesSharedCache() {
+        // Arrange
+        InMemorySharedStore store = new InMemorySharedStore();
+        WeatherService otherNode = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5)),
+                new ForecastCache(100), sharedCache(store), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        weatherService = new WeatherService(upstreamClient, new TtlCache<>(100, Duration.ofMinutes(5)),
+                new ForecastCache(100), sharedCache(store), regionLookupService, weatherHistoryService, CityIndex.empty(), providers(), ConditionRegistry.empty());
+        when(upstreamClient.getJson(any(), contains("current.json")))
+                .thenReturn(currentResponse("London", "City of London, Greater London", 51.52, -0.11));
+        when(upstreamClient.get(any(), contains("days=4"), any())).thenReturn(forecast(4));
+        CachedValue<WeatherDTO> fetched = weatherService.lookupWeather("London");
+        weatherService.getForecast("London", 4);
+
+        // Act
+        CachedValue<WeatherDTO> shared = otherNode.lookupWeather("london");
+        ForecastDTO sharedForecast = otherNode.getForecast("London", 2);
+
+        // Assert
+        assertEquals(fetched.value(), shared.value());
+        assertEquals(fetched.expiresAt(), shared.expiresAt());
+        assertEquals(2, sharedForecast.forecast().size());
+        verify(upstreamClient, times(1)).getJson(any(), contains("current.json"));
+        verify(upstreamClient, times(1)).get(any(), anyString(), any());
+    }
+
+    private static SharedWeatherCache sharedCache(SharedStore store) {
+        return new SharedWeatherCache(store, "test:", Duration.ofHours(1), Duration.ofSeconds(10),
+                Duration.ofSeconds(3), Duration.ofSeconds(5), Clock.systemUTC(), new SimpleMeterRegistry(), ConditionRegistry.empty());
+    }
+
+    private static ForecastDTO forecast(int days) {
+        List<ForecastDTO.ForecastDay> forecastDays = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            forecastDays.add(new ForecastDTO.ForecastDay("2025-01-1" + i, null, List.of()));
+        }
+        return new ForecastDTO("London", "England", "United Kingdom", 51.5074, -0.1278, forecastDays);
+    }
+
+    @Test
+    void testGetForecast_ShorterHorizonServedFromCache() {
+        // Arrange
+        when(upstreamClient.get(any(), contains("days=4"), any())).thenReturn(forecast(4));
+
+        // Act
+        ForecastDTO fourDays = weatherService.getForecast("London", 4);
+        ForecastDTO oneDay = weatherService.getForecast("london ", 1);
+
+        // Assert
+        assertEquals(4, fourDays.forecast().size());
+        assertEquals(1, oneDay.forecast().size());
+        assertEquals("2025-01-10", oneDay.forecast().get(0).date());
+        verify(upstreamClient, times(1)).get(any(), anyString(), any());
+    }
+}
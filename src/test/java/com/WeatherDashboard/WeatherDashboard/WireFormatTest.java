@@ -0,0 +1,108 @@
+package com.WeatherDashboard.WeatherDashboard;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WireFormatConfig config = new WireFormatConfig();
+    private ForecastDTO forecast;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = WireFormatTest.class.getResourceAsStream("/fixtures/weatherapi-forecast-4d.json")) {
+            forecast = new ForecastParser(ConditionRegistry.empty()).parse(in);
+        }
+    }
+
+    @Test
+    void testNegotiate_FollowsQualityAndDefaultsToJson() {
+        // Act & Assert
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(null));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("text/html,application/xhtml+xml,*/*;q=0.8"));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(WireFormat.SMILE, WireFormat.negotiate("application/x-jackson-smile"));
+        assertEquals(WireFormat.COLUMNAR_JSON, WireFormat.negotiate(WireFormat.COLUMNAR_JSON_VALUE + ", */*;q=0.1"));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("not a media type"));
+    }
+
+    @Test
+    void testColumnarJson_WritesOneArrayPerHourField() throws IOException {
+        // Arrange
+        HttpMessageConverter<Object> converter = config.mappingJackson2HttpMessageConverter(objectMapper);
+
+        // Act
+        byte[] json = write(converter, MediaType.APPLICATION_JSON);
+        byte[] columnar = write(converter, WireFormat.COLUMNAR_JSON.mediaType());
+
+        // Assert
+        JsonNode hour = objectMapper.readTree(columnar).get("forecast").get(0).get("hour");
+        ForecastDTO.ForecastDay firstDay = forecast.forecast().get(0);
+        assertEquals(firstDay.hours().size(), hour.get("time").size());
+        assertEquals(firstDay.hours().get(5).tempF(), hour.get("temp_f").get(5).asDouble());
+        ForecastDTO.HourForecast sixth = firstDay.hours().get(5);
+        assertEquals(sixth.condition().text(),
+                hour.get("conditions").get(hour.get("condition").get(5).asInt()).get("text").asText());
+        assertTrue(hour.get("conditions").size() < firstDay.hours().size());
+        assertEquals(forecast, objectMapper.readValue(json, ForecastDTO.class));
+        assertTrue(columnar.length * 2 < json.length, columnar.length + " bytes vs " + json.length + " bytes of JSON");
+    }
+
+    @Test
+    void testBinaryFormats_RoundTripAndAreSmallerThanJson() throws IOException {
+        // Arrange
+        HttpMessageConverter<Object> cbor = config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+        HttpMessageConverter<Object> smile = config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+        int jsonSize = objectMapper.writeValueAsBytes(forecast).length;
+
+        // Act
+        byte[] cborBody = write(cbor, WireFormat.CBOR.mediaType());
+        byte[] smileBody = write(smile, WireFormat.SMILE.mediaType());
+
+        // Assert
+        assertEquals(forecast, Jackson2ObjectMapperBuilder.cbor().build().readValue(cborBody, ForecastDTO.class));
+        assertEquals(forecast, Jackson2ObjectMapperBuilder.smile().build().readValue(smileBody, ForecastDTO.class));
+        assertTrue(cborBody.length < jsonSize, cborBody.length + " bytes vs " + jsonSize + " bytes of JSON");
+        assertTrue(smileBody.length < jsonSize, smileBody.length + " bytes vs " + jsonSize + " bytes of JSON");
+    }
+
+    @Test
+    void testConditionCodes_WritesIdsInsteadOfConditions() throws IOException {
+        // Arrange
+        HttpMessageConverter<Object> converter = config.mappingJackson2HttpMessageConverter(objectMapper);
+
+        // Act
+        JsonNode json = objectMapper.readTree(write(converter, MediaType.parseMediaType("application/json;conditions=codes")));
+        JsonNode columnar = objectMapper.readTree(write(converter,
+                MediaType.parseMediaType(WireFormat.COLUMNAR_JSON_VALUE + ";conditions=codes")));
+
+        // Assert
+        assertEquals("1000n", json.get("forecast").get(0).get("hour").get(0).get("condition").asText());
+        assertEquals("1063d", json.get("forecast").get(0).get("day").get("condition").asText());
+        assertEquals("1000n", columnar.get("forecast").get(0).get("hour").get("condition").get(0).asText());
+        assertFalse(columnar.get("forecast").get(0).get("hour").has("conditions"));
+        assertEquals("\"abc-cbor-codes\"", WireFormat.etag("application/cbor;conditions=codes", "\"abc\""));
+    }
+
+    private byte[] write(HttpMessageConverter<Object> converter, MediaType mediaType) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(forecast, mediaType, message);
+        return message.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,85 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastCacheTest {
+
+    private static ForecastDTO forecast(int days) {
+        List<ForecastDTO.ForecastDay> forecastDays = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            forecastDays.add(new ForecastDTO.ForecastDay("2025-01-1" + i, null, List.of()));
+        }
+        return new ForecastDTO("London", "England", "United Kingdom", 51.5, -0.13, forecastDays);
+    }
+
+    @Test
+    void testGet_SlicesWiderHorizon() {
+        // Arrange
+        ForecastCache cache = new ForecastCache(10);
+        cache.put("london", 4, forecast(4));
+
+        // Act
+        ForecastDTO twoDays = cache.get("london", 2);
+
+        // Assert
+        assertEquals(2, twoDays.forecast().size());
+        assertEquals("2025-01-11", twoDays.forecast().get(1).date());
+        assertEquals("London", twoDays.city());
+    }
+
+    @Test
+    void testGet_MissesWhenHorizonTooShort() {
+        // Arrange
+        ForecastCache cache = new ForecastCache(10);
+        cache.put("london", 2, forecast(2));
+
+        // Act & Assert
+        assertNull(cache.get("london", 3));
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testPut_KeepsWidestHorizon() {
+        // Arrange
+        ForecastCache cache = new ForecastCache(10);
+        cache.put("london", 4, forecast(4));
+
+        // Act
+        cache.put("london", 1, forecast(1));
+
+        // Assert
+        assertEquals(3, cache.get("london", 3).forecast().size());
+    }
+
+    @Test
+    void testGet_CoversHorizonCappedByUpstream() {
+        // Arrange: asked for 4 days, the plan only returned 3
+        ForecastCache cache = new ForecastCache(10);
+        cache.put("london", 4, forecast(3));
+
+        // Act & Assert
+        assertEquals(3, cache.get("london", 4).forecast().size());
+    }
+
+    @Test
+    void testGet_ExpiresAtNextHourBoundary() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-15T10:50:00Z"));
+        ForecastCache cache = new ForecastCache(10, clock);
+        cache.put("london", 3, forecast(3));
+
+        // Act & Assert
+        clock.advance(Duration.ofMinutes(9));
+        assertNotNull(cache.get("london", 3));
+        clock.advance(Duration.ofMinutes(1));
+        assertNull(cache.get("london", 3));
+    }
+}
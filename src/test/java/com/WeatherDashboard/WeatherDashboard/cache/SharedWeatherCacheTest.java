@@ -0,0 +1,120 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedWeatherCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SharedWeatherCache node(SharedStore store) {
+        return new SharedWeatherCache(store, "test:", Duration.ofMinutes(5), Duration.ofSeconds(10),
+                Duration.ofSeconds(5), Duration.ofSeconds(5), Clock.systemUTC(), meterRegistry, ConditionRegistry.empty());
+    }
+
+    @Test
+    void testFetchOnce_SecondNodeWaitsForFirstNodesValue() throws Exception {
+        // Arrange
+        InMemorySharedStore store = new InMemorySharedStore();
+        SharedWeatherCache first = node(store);
+        SharedWeatherCache second = node(store);
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicReference<String> published = new AtomicReference<>();
+        CountDownLatch firstFetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<String> firstResult = executor.submit(() -> first.fetchOnce("current", "london", published::get, () -> {
+            fetches.incrementAndGet();
+            firstFetching.countDown();
+            await(release);
+            published.set("from first");
+            return "from first";
+        }));
+        assertTrue(firstFetching.await(2, TimeUnit.SECONDS));
+        Future<String> secondResult = executor.submit(() ->
+                second.fetchOnce("current", "london", published::get, () -> {
+                    fetches.incrementAndGet();
+                    return "from second";
+                }));
+        release.countDown();
+
+        // Assert
+        assertEquals("from first", firstResult.get(2, TimeUnit.SECONDS));
+        assertEquals("from first", secondResult.get(2, TimeUnit.SECONDS));
+        assertEquals(1, fetches.get());
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testPutCurrent_InvalidatesOtherNodesOnly() {
+        // Arrange
+        InMemorySharedStore store = new InMemorySharedStore();
+        SharedWeatherCache writer = node(store);
+        SharedWeatherCache reader = node(store);
+        List<String> writerInvalidations = new ArrayList<>();
+        List<String> readerInvalidations = new ArrayList<>();
+        writer.onInvalidate((cache, key) -> writerInvalidations.add(cache + ":" + key));
+        reader.onInvalidate((cache, key) -> readerInvalidations.add(cache + ":" + key));
+        WeatherDTO weather = new WeatherDTO("London", "England", "United Kingdom", 45.3, 7.4, "Sunny", 50, 3.0, 51.52, -0.11);
+        Instant now = Instant.now();
+
+        // Act
+        writer.putCurrent("london", new CachedValue<>(weather, now, now.plus(Duration.ofMinutes(5)), false));
+
+        // Assert
+        assertEquals(List.of("current:london"), readerInvalidations);
+        assertTrue(writerInvalidations.isEmpty());
+        assertEquals(weather, reader.getCurrent("london").value());
+    }
+
+    @Test
+    void testRead_BypassesStoreAfterFailure() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        SharedStore broken = new InMemorySharedStore() {
+            @Override
+            public byte[] get(String key) {
+                calls.incrementAndGet();
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        SharedWeatherCache cache = node(broken);
+
+        // Act
+        WeatherCodec.Entry<?> first = cache.getCurrent("london");
+        WeatherCodec.Entry<?> second = cache.getCurrent("london");
+
+        // Assert
+        assertNull(first);
+        assertNull(second);
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.get("weather.cache.shared.errors").tag("operation", "read").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneLoad() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 20;
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> flights.execute("london", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "sunny";
+                })));
+            }
+            // Let every caller reach the flight before the leader finishes
+            while (flights.stats().leaders() + flights.stats().collapsed() < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+        }
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("sunny", result.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flights.stats().leaders());
+        assertEquals(callers - 1, flights.stats().collapsed());
+        assertEquals(0, flights.inFlightCount());
+    }
+
+    @Test
+    void testExecute_FailurePropagatesToWaiters() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        RuntimeException failure = new RuntimeException("API Error");
+
+        // Act
+        Future<String> leader;
+        Future<String> waiter;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            leader = executor.submit(() -> flights.execute("london", () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw failure;
+            }));
+            while (flights.inFlightCount() == 0) {
+                Thread.sleep(5);
+            }
+            waiter = executor.submit(() -> flights.execute("london", () -> "unused"));
+            while (flights.stats().collapsed() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+        }
+
+        // Assert
+        assertSame(failure, assertThrows(Exception.class, leader::get).getCause());
+        assertSame(failure, assertThrows(Exception.class, waiter::get).getCause());
+
+        // A new call after the failure starts fresh
+        assertEquals("recovered", flights.execute("london", () -> "recovered"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    @Test
+    void testGet_LoadsOnceWithinTtl() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("london", key -> "value-" + loads.incrementAndGet());
+        String second = cache.get("london", key -> "value-" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("value-1", second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testGet_ReturnsNullAfterTtl() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(5), clock);
+        cache.put("london", "sunny");
+
+        // Act
+        clock.advance(Duration.ofMinutes(6));
+
+        // Assert
+        assertNull(cache.get("london"));
+        assertEquals(0, cache.stats().expirations(), "still held for getStale, so not counted yet");
+    }
+
+    @Test
+    void testGetStale_ReturnsExpiredValueWithinMaxStale() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(5), clock);
+        cache.put("london", "sunny");
+        clock.advance(Duration.ofMinutes(6));
+
+        // Act
+        String fresh = cache.get("london");
+        String stale = cache.getStale("london", Duration.ofMinutes(30));
+        clock.advance(Duration.ofMinutes(30));
+
+        // Assert
+        assertNull(fresh);
+        assertEquals("sunny", stale);
+        assertNull(cache.getStale("london", Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testGetEntry_FlagsRecentlyExpiredValueAsStale() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(5), clock);
+        cache.put("london", "sunny");
+
+        // Act
+        CachedValue<String> fresh = cache.getEntry("london", Duration.ofMinutes(1));
+        clock.advance(Duration.ofSeconds(330));
+        CachedValue<String> stale = cache.getEntry("london", Duration.ofMinutes(1));
+        clock.advance(Duration.ofMinutes(1));
+        CachedValue<String> tooOld = cache.getEntry("london", Duration.ofMinutes(1));
+
+        // Assert
+        assertFalse(fresh.stale());
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z"), fresh.fetchedAt());
+        assertEquals(Instant.parse("2025-01-01T00:05:00Z"), fresh.expiresAt());
+        assertEquals("sunny", stale.value());
+        assertTrue(stale.stale());
+        assertEquals(Duration.ZERO, stale.remainingTtl(clock.instant()));
+        assertNull(tooOld);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofMinutes(5));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        // Act
+        cache.put("c", "3");
+
+        // Assert
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsExpiredEntryBeforeLeastRecentlyUsed() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofMinutes(5), clock);
+        cache.put("a", "1", Instant.parse("2025-01-01T00:01:00Z"));
+        cache.put("b", "2");
+        cache.get("a");
+        clock.advance(Duration.ofMinutes(2));
+        cache.get("a");
+
+        // Act
+        cache.put("c", "3");
+
+        // Assert
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.getStale("a", Duration.ofHours(1)));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    void testLocationKey_QuantizesCoordinates() {
+        assertEquals("40.71,-74.01", LocationKey.normalize("40.7128,-74.0060"));
+        assertEquals(LocationKey.normalize("40.7131, -74.0061"), LocationKey.ofCoords(40.7128, -74.006));
+        assertEquals("new york", LocationKey.normalize("  New   York "));
+        assertEquals("0.00,0.00", LocationKey.normalize("-0.001,0.001"));
+    }
+}
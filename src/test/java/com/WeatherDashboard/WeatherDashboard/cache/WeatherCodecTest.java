@@ -0,0 +1,69 @@
+package com.WeatherDashboard.WeatherDashboard.cache;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.parser.ForecastParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherCodecTest {
+
+    private static final Instant FETCHED_AT = Instant.parse("2025-01-15T10:12:00Z");
+    private static final Instant EXPIRES_AT = Instant.parse("2025-01-15T11:00:00Z");
+
+    private final ConditionRegistry conditionRegistry = ConditionRegistry.empty();
+
+    @Test
+    void testCurrent_RoundTripsValueAndTimestamps() {
+        // Arrange
+        WeatherDTO weather = new WeatherDTO("London", null, "United Kingdom", 45.3, 7.4, "Light rain", 87, 9.4, 51.52, -0.11);
+
+        // Act
+        WeatherCodec.Entry<WeatherDTO> decoded = WeatherCodec.decodeCurrent(
+                WeatherCodec.encodeCurrent(new CachedValue<>(weather, FETCHED_AT, EXPIRES_AT, false)));
+
+        // Assert
+        assertEquals(weather, decoded.value());
+        assertEquals(FETCHED_AT, decoded.fetchedAt());
+        assertEquals(EXPIRES_AT, decoded.expiresAt());
+        assertEquals(0, decoded.days());
+    }
+
+    @Test
+    void testForecast_RoundTripsAndIsFarSmallerThanJson() throws IOException {
+        // Arrange
+        ForecastDTO forecast;
+        try (InputStream in = WeatherCodecTest.class.getResourceAsStream("/fixtures/weatherapi-forecast-4d.json")) {
+            forecast = new ForecastParser(conditionRegistry).parse(in);
+        }
+        int jsonSize = new ObjectMapper().writeValueAsBytes(forecast).length;
+
+        // Act
+        byte[] encoded = WeatherCodec.encodeForecast(new CachedValue<>(forecast, FETCHED_AT, EXPIRES_AT, false), 4);
+        WeatherCodec.Entry<ForecastDTO> decoded = WeatherCodec.decodeForecast(encoded, conditionRegistry);
+
+        // Assert
+        assertEquals(forecast, decoded.value());
+        assertEquals(4, decoded.days());
+        assertTrue(encoded.length * 3 < jsonSize, encoded.length + " bytes vs " + jsonSize + " bytes of JSON");
+    }
+
+    @Test
+    void testDecode_RejectsUnknownVersion() {
+        // Arrange
+        byte[] encoded = WeatherCodec.encodeCurrent(new CachedValue<>(
+                new WeatherDTO("London", "England", "United Kingdom", 45.3, 7.4, "Sunny", 50, 3.0, 51.52, -0.11),
+                FETCHED_AT, EXPIRES_AT, false));
+        encoded[0] = 99;
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> WeatherCodec.decodeCurrent(encoded));
+    }
+}
@@ -0,0 +1,107 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import com.WeatherDashboard.WeatherDashboard.cache.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final Duration FAST = Duration.ofMillis(10);
+    private static final Duration SLOW = Duration.ofSeconds(2);
+
+    private MutableClock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        breaker = new CircuitBreaker(new CircuitBreaker.Settings(
+                4, 4, 50, Duration.ofSeconds(1), 75, Duration.ofSeconds(30), 2), clock);
+    }
+
+    private void call(boolean failed, Duration elapsed) {
+        assertTrue(breaker.tryAcquire());
+        if (failed) {
+            breaker.onFailure(elapsed);
+        } else {
+            breaker.onSuccess(elapsed);
+        }
+    }
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        // Act
+        call(false, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        call(true, FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testOpensWhenSlowCallRateReachesThreshold() {
+        // Act
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, FAST);
+        call(false, SLOW);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void testStaysClosedBelowMinimumCalls() {
+        // Act
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulTrialCalls() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        // Act
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only halfOpenCalls trial calls are let through");
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testHalfOpenReopensOnFailedTrialCall() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        // Act
+        call(true, FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,127 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import com.WeatherDashboard.WeatherDashboard.cache.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotaGovernorTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-31T12:00:00Z"));
+
+    private static QuotaGovernor.Settings settings(int perMinute, int burst, long perMonth, double reserve, Duration wait) {
+        return new QuotaGovernor.Settings(perMinute, burst, perMonth, reserve, wait, wait,
+                Duration.ofSeconds(1), Duration.ofSeconds(8));
+    }
+
+    @Test
+    void testTryAcquire_SpendsBurstThenRefillsAtRate() {
+        // Arrange
+        QuotaGovernor governor = new QuotaGovernor(settings(60, 2, 0, 0, Duration.ZERO), clock);
+
+        // Act
+        boolean first = governor.tryAcquire(CallPriority.INTERACTIVE);
+        boolean second = governor.tryAcquire(CallPriority.INTERACTIVE);
+        boolean third = governor.tryAcquire(CallPriority.INTERACTIVE);
+        clock.advance(Duration.ofSeconds(1));
+        boolean afterRefill = governor.tryAcquire(CallPriority.INTERACTIVE);
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(afterRefill);
+    }
+
+    @Test
+    void testTryAcquire_BackgroundLeavesReserveForInteractive() {
+        // Arrange
+        QuotaGovernor governor = new QuotaGovernor(settings(60, 10, 0, 0.2, Duration.ZERO), clock);
+        int background = 0;
+
+        // Act
+        while (governor.tryAcquire(CallPriority.BACKGROUND)) {
+            background++;
+        }
+
+        // Assert
+        assertEquals(8, background);
+        assertTrue(governor.tryAcquire(CallPriority.INTERACTIVE));
+        assertTrue(governor.tryAcquire(CallPriority.INTERACTIVE));
+        assertFalse(governor.tryAcquire(CallPriority.INTERACTIVE));
+    }
+
+    @Test
+    void testAcquire_MonthlyBudgetResetsInNextMonth() throws InterruptedException {
+        // Arrange
+        QuotaGovernor governor = new QuotaGovernor(settings(0, 1, 3, 0, Duration.ZERO), clock);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(QuotaGovernor.Admission.ADMITTED, governor.acquire(CallPriority.INTERACTIVE));
+        }
+
+        // Act
+        QuotaGovernor.Admission exhausted = governor.acquire(CallPriority.INTERACTIVE);
+        clock.advance(Duration.ofDays(1));
+        QuotaGovernor.Admission nextMonth = governor.acquire(CallPriority.INTERACTIVE);
+
+        // Assert
+        assertEquals(QuotaGovernor.Admission.MONTH_EXHAUSTED, exhausted);
+        assertEquals(QuotaGovernor.Admission.ADMITTED, nextMonth);
+        assertEquals(2, governor.remainingThisMonth());
+    }
+
+    @Test
+    void testAcquire_InteractiveGoesAheadOfWaitingBackground() throws InterruptedException {
+        // Arrange: one token every 500ms, none left
+        QuotaGovernor governor = new QuotaGovernor(settings(120, 1, 0, 0, Duration.ofSeconds(5)), Clock.systemUTC());
+        assertTrue(governor.tryAcquire(CallPriority.INTERACTIVE));
+        List<CallPriority> admitted = new CopyOnWriteArrayList<>();
+        Thread background = Thread.ofVirtual().start(() -> acquireInto(governor, CallPriority.BACKGROUND, admitted));
+        while (governor.queued(CallPriority.BACKGROUND) == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        Thread interactive = Thread.ofVirtual().start(() -> acquireInto(governor, CallPriority.INTERACTIVE, admitted));
+        background.join();
+        interactive.join();
+
+        // Assert
+        assertEquals(List.of(CallPriority.INTERACTIVE, CallPriority.BACKGROUND), admitted);
+    }
+
+    @Test
+    void testOnThrottled_BacksOffExponentiallyWithoutRetryAfter() {
+        // Arrange
+        QuotaGovernor governor = new QuotaGovernor(settings(0, 1, 0, 0, Duration.ZERO), clock);
+
+        // Act
+        governor.onThrottled(null);
+        governor.onThrottled(null);
+        Duration backoff = governor.backoffRemaining();
+        boolean duringBackoff = governor.tryAcquire(CallPriority.INTERACTIVE);
+        clock.advance(backoff);
+        boolean afterBackoff = governor.tryAcquire(CallPriority.INTERACTIVE);
+
+        // Assert
+        assertEquals(Duration.ofSeconds(2), backoff);
+        assertFalse(duringBackoff);
+        assertTrue(afterBackoff);
+    }
+
+    private static void acquireInto(QuotaGovernor governor, CallPriority priority, List<CallPriority> admitted) {
+        try {
+            if (governor.acquire(priority) == QuotaGovernor.Admission.ADMITTED) {
+                admitted.add(priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.WeatherDashboard.WeatherDashboard.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamClientTest {
+
+    private HttpServer server;
+    private UpstreamClient upstreamClient;
+    private SimpleMeterRegistry meterRegistry;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "{\"name\":\"London\",\"temp_c\":20.5}"));
+        server.createContext("/missing", exchange -> respond(exchange, 404, "{\"error\":\"not found\"}"));
+        server.createContext("/throttled", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "30");
+            respond(exchange, 429, "{\"error\":\"too many requests\"}");
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/lagging", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        // Handle requests concurrently so the bulkhead, not the stub, is the limit
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        upstreamClient = new UpstreamClient(Duration.ofSeconds(1), Duration.ofMillis(1000), new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamClient.shutdown();
+        server.stop(0);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void testGetJson_Success() {
+        // Act
+        Map<String, Object> result = upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/ok?key=secret");
+
+        // Assert
+        assertEquals("London", result.get("name"));
+        assertEquals(20.5, result.get("temp_c"));
+        assertEquals(1, meterRegistry.get("weather.upstream.requests")
+                .tag("api", "weatherapi.current").tag("outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("weather.upstream.in_flight").tag("api", "weatherapi.current").gauge().value());
+    }
+
+    @Test
+    void testGetJsonAsync_Success() {
+        // Act
+        Map<String, Object> result = upstreamClient.getJsonAsync(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/ok").join();
+
+        // Assert
+        assertEquals("London", result.get("name"));
+    }
+
+    @Test
+    void testGetJson_ThrowsWithStatus_WhenNotFound() {
+        // Act
+        UpstreamException e = assertThrows(UpstreamException.class,
+                () -> upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/missing?key=secret"));
+
+        // Assert
+        assertEquals(404, e.getStatusCode());
+        assertFalse(e.getMessage().contains("secret"), "API key must not leak into error messages");
+        assertEquals(1.0, meterRegistry.get("weather.upstream.errors")
+                .tag("api", "weatherapi.current").tag("cause", "http_4xx").counter().count());
+    }
+
+    @Test
+    void testGetJsonAsync_FailsOnReadTimeout() {
+        // Act
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> upstreamClient.getJsonAsync(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/slow").join());
+
+        // Assert
+        assertInstanceOf(UpstreamException.class, e.getCause());
+        assertEquals(1.0, meterRegistry.get("weather.upstream.errors").tag("cause", "timeout").counter().count());
+    }
+
+    private UpstreamClient guardedClient(int maxConcurrency) {
+        CircuitBreaker.Settings breaker = new CircuitBreaker.Settings(
+                4, 4, 50, Duration.ofMillis(200), 50, Duration.ofMinutes(1), 1);
+        // Fresh registry: gauges stay bound to the client that registered them first
+        meterRegistry = new SimpleMeterRegistry();
+        return new UpstreamClient(Duration.ofSeconds(1), Duration.ofMillis(1000), new ObjectMapper(), meterRegistry,
+                provider -> new ResilienceSettings(maxConcurrency, Duration.ZERO, breaker));
+    }
+
+    @Test
+    void testGetJson_OpensCircuitOnSlowCallsAndFailsFast() {
+        // Arrange
+        upstreamClient.shutdown();
+        upstreamClient = guardedClient(10);
+        for (int i = 0; i < 4; i++) {
+            upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/lagging");
+        }
+
+        // Act
+        long start = System.nanoTime();
+        UpstreamRejectedException e = assertThrows(UpstreamRejectedException.class,
+                () -> upstreamClient.getJson(UpstreamApi.WEATHERAPI_FORECAST, baseUrl + "/ok"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(UpstreamRejectedException.CIRCUIT_OPEN, e.getReason());
+        assertTrue(elapsedMs < 100, "open circuit should reject without a request, took " + elapsedMs + "ms");
+        assertEquals(1.0, meterRegistry.get("weather.upstream.circuit.state")
+                .tag("provider", "weatherapi").tag("state", "open").gauge().value());
+        assertEquals(CircuitBreaker.State.CLOSED, upstreamClient.circuitState("openweathermap"));
+        assertNotNull(upstreamClient.getJson(UpstreamApi.OPENWEATHERMAP_FIND, baseUrl + "/ok"),
+                "the other provider has its own breaker");
+    }
+
+    @Test
+    void testGetJson_NotFoundDoesNotOpenCircuit() {
+        // Arrange
+        upstreamClient.shutdown();
+        upstreamClient = guardedClient(10);
+
+        // Act
+        for (int i = 0; i < 6; i++) {
+            assertThrows(UpstreamException.class,
+                    () -> upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/missing"));
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, upstreamClient.circuitState("weatherapi"));
+    }
+
+    @Test
+    void testGet_ParserFailureCountsAgainstProvider() {
+        // Arrange
+        upstreamClient.shutdown();
+        upstreamClient = guardedClient(10);
+        ResponseParser<String> brokenParser = body -> {
+            throw new IllegalStateException("unexpected response shape");
+        };
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class,
+                    () -> upstreamClient.get(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/ok", brokenParser));
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, upstreamClient.circuitState("weatherapi"));
+        assertEquals(4.0, meterRegistry.get("weather.upstream.errors")
+                .tag("api", "weatherapi.current").tag("cause", "parse").counter().count());
+        assertEquals(4, meterRegistry.get("weather.upstream.requests")
+                .tag("api", "weatherapi.current").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testGetJson_BulkheadRejectsWhenProviderIsSaturated() {
+        // Arrange
+        upstreamClient.shutdown();
+        upstreamClient = guardedClient(1);
+        CompletableFuture<Map<String, Object>> slowCall =
+                upstreamClient.getJsonAsync(UpstreamApi.OPENWEATHERMAP_FIND, baseUrl + "/lagging");
+
+        // Act
+        UpstreamRejectedException e = assertThrows(UpstreamRejectedException.class,
+                () -> upstreamClient.getJson(UpstreamApi.OPENWEATHERMAP_FIND, baseUrl + "/ok"));
+
+        // Assert
+        assertEquals(UpstreamRejectedException.BULKHEAD_FULL, e.getReason());
+        assertEquals("London", upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/ok").get("name"),
+                "the other provider has its own bulkhead");
+        slowCall.join();
+        assertEquals(1.0, meterRegistry.get("weather.upstream.bulkhead.available")
+                .tag("provider", "openweathermap").gauge().value());
+        assertEquals(1.0, meterRegistry.get("weather.upstream.rejected")
+                .tag("provider", "openweathermap").tag("reason", "bulkhead_full").counter().count());
+    }
+
+    @Test
+    void testGetJson_HoldsProviderBackAfter429() {
+        // Arrange
+        UpstreamException throttled = assertThrows(UpstreamException.class,
+                () -> upstreamClient.getJson(UpstreamApi.WEATHERAPI_CURRENT, baseUrl + "/throttled"));
+
+        // Act
+        UpstreamRejectedException e = assertThrows(UpstreamRejectedException.class,
+                () -> upstreamClient.getJson(UpstreamApi.WEATHERAPI_FORECAST, baseUrl + "/ok"));
+
+        // Assert
+        assertEquals(429, throttled.getStatusCode());
+        assertEquals(Duration.ofSeconds(30), throttled.getRetryAfter());
+        assertEquals(UpstreamRejectedException.QUOTA_WAIT_TIMEOUT, e.getReason());
+        assertTrue(meterRegistry.get("weather.upstream.quota.backoff").tag("provider", "weatherapi").gauge().value() > 25);
+        assertEquals("London", upstreamClient.getJson(UpstreamApi.OPENWEATHERMAP_FIND, baseUrl + "/ok").get("name"),
+                "the other provider has its own quota");
+    }
+}
@@ -0,0 +1,92 @@
+package com.WeatherDashboard.WeatherDashboard.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityIndexTest {
+
+    private static CityIndex index(String csv) throws IOException {
+        return CityIndex.load(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testNearest_ReturnsCitiesWithinRadiusNearestFirst() throws IOException {
+        // Arrange
+        CityIndex cityIndex = index("""
+                name,region,country,lat,lon,population
+                Philadelphia,Pennsylvania,USA,39.9526,-75.1652,1603797
+                Camden,New Jersey,USA,39.9259,-75.1196,71791
+                Cherry Hill,New Jersey,USA,39.9348,-75.0307,74553
+                New York,New York,USA,40.7128,-74.0060,8336817
+                """);
+
+        // Act
+        List<NearbyCity> nearby = cityIndex.nearest(39.95, -75.16, 15.0, 10, CityIndex.Filter.ANY);
+
+        // Assert
+        assertEquals(List.of("Philadelphia", "Camden", "Cherry Hill"), nearby.stream().map(NearbyCity::name).toList());
+        assertTrue(nearby.get(0).distanceKm() < 1.0);
+        assertEquals("New Jersey", nearby.get(1).region());
+    }
+
+    @Test
+    void testNearest_FiltersByRegionId() throws IOException {
+        // Arrange
+        CityIndex cityIndex = index("""
+                Philadelphia,Pennsylvania,USA,39.9526,-75.1652,1603797
+                Camden,New Jersey,USA,39.9259,-75.1196,71791
+                Upper Darby,Pennsylvania,USA,39.9610,-75.2735,85681
+                """);
+        int pennsylvania = cityIndex.regionId("pennsylvania ");
+
+        // Act
+        List<NearbyCity> nearby = cityIndex.nearest(39.95, -75.16, 15.0, 10,
+                (city, distanceKm) -> cityIndex.inRegion(city, pennsylvania));
+
+        // Assert
+        assertEquals(List.of("Philadelphia", "Upper Darby"), nearby.stream().map(NearbyCity::name).toList());
+        assertEquals(-1, cityIndex.regionId("Ontario"));
+    }
+
+    @Test
+    void testNearest_KeepsOnlyClosestUpToLimitAcrossAntimeridian() throws IOException {
+        // Arrange
+        CityIndex cityIndex = index("""
+                East,Region,Fiji,-17.0,179.99,100
+                West,Region,Fiji,-17.0,-179.98,100
+                Farther,Region,Fiji,-17.05,179.95,100
+                """);
+
+        // Act
+        List<NearbyCity> nearby = cityIndex.nearest(-17.0, 179.999, 15.0, 2, CityIndex.Filter.ANY);
+
+        // Assert
+        assertEquals(List.of("East", "West"), nearby.stream().map(NearbyCity::name).toList());
+    }
+
+    @Test
+    void testLoad_BundledGazetteer() throws IOException {
+        // Arrange
+        try (InputStream in = getClass().getResourceAsStream("/gazetteer/cities.csv")) {
+            // Act
+            CityIndex cityIndex = CityIndex.load(in);
+
+            // Assert
+            assertTrue(cityIndex.size() > 100);
+            assertFalse(cityIndex.nearest(37.7749, -122.4194, 15.0, 6, CityIndex.Filter.ANY).isEmpty());
+        }
+    }
+
+    @Test
+    void testLoad_RejectsMalformedLine() {
+        assertThrows(IOException.class, () -> index("Nowhere,Region,Country,not-a-number,0,1"));
+        assertThrows(IOException.class, () -> index("Too,Few,Fields"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.WeatherDashboard.WeatherDashboard.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoHashTest {
+
+    @Test
+    void testEncode_KnownLocations() {
+        assertEquals("gcpvj0", GeoHash.encode(51.5074, -0.1278, 6));
+        assertEquals("dr5reg", GeoHash.encode(40.7128, -74.0060, 6));
+    }
+
+    @Test
+    void testEncode_NearbyPointsShareCell() {
+        assertEquals(GeoHash.encode(40.7128, -74.0060, 5), GeoHash.encode(40.7131, -74.0055, 5));
+    }
+
+    @Test
+    void testEncode_RejectsInvalidCoordinates() {
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(91, 0, 6));
+    }
+}
@@ -0,0 +1,89 @@
+package com.WeatherDashboard.WeatherDashboard.parser;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ConditionRegistry;
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastParserTest {
+
+    private static byte[] fixture;
+    private final ConditionRegistry conditionRegistry = ConditionRegistry.empty();
+    private final ForecastParser forecastParser = new ForecastParser(conditionRegistry);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void loadFixture() throws IOException {
+        try (InputStream in = ForecastParserTest.class.getResourceAsStream("/fixtures/weatherapi-forecast-4d.json")) {
+            fixture = in.readAllBytes();
+        }
+    }
+
+    @Test
+    void testParse_MatchesTreeModelMapping() throws IOException {
+        // Act
+        ForecastDTO streamed = forecastParser.parse(new ByteArrayInputStream(fixture));
+        ForecastDTO mapped = TreeModelForecastMapping.map(objectMapper.readValue(fixture, Map.class));
+
+        // Assert
+        assertEquals(mapped, streamed);
+        assertEquals("London", streamed.city());
+        assertEquals(4, streamed.forecast().size());
+        assertEquals(24, streamed.forecast().get(0).hours().size());
+        assertEquals("2025-01-15 00:00", streamed.forecast().get(0).hours().get(0).time());
+    }
+
+    @Test
+    void testParse_ThrowsWhenForecastMissing() {
+        byte[] body = "{\"location\":{\"name\":\"London\"}}".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(JsonParseException.class, () -> forecastParser.parse(new ByteArrayInputStream(body)));
+    }
+
+    @Test
+    void testParse_SharesConditionInstancesAcrossForecasts() throws IOException {
+        // Act
+        ForecastDTO first = forecastParser.parse(new ByteArrayInputStream(fixture));
+        ForecastDTO second = forecastParser.parse(new ByteArrayInputStream(fixture));
+
+        // Assert
+        List<ForecastDTO.Condition> conditions = first.forecast().stream()
+                .flatMap(day -> day.hours().stream())
+                .map(ForecastDTO.HourForecast::condition)
+                .toList();
+        assertSame(conditions.get(0), second.forecast().get(0).hours().get(0).condition());
+        assertEquals(conditions.stream().distinct().count(),
+                conditions.stream().map(System::identityHashCode).distinct().count());
+        assertEquals("1000n", ConditionRegistry.idOf(conditions.get(0)));
+        assertSame(conditions.get(0), conditionRegistry.dictionary().get("1000n"));
+    }
+
+    @Test
+    void testParse_UsesConditionsPreloadedFromBundledFile() throws IOException {
+        // Arrange
+        ConditionRegistry preloaded;
+        try (InputStream in = ForecastParserTest.class.getResourceAsStream("/conditions/weatherapi-conditions.csv")) {
+            preloaded = ConditionRegistry.load(in);
+        }
+        Map<String, ForecastDTO.Condition> before = preloaded.dictionary();
+
+        // Act
+        ForecastDTO forecast = new ForecastParser(preloaded).parse(new ByteArrayInputStream(fixture));
+
+        // Assert
+        assertEquals(96, before.size());
+        assertSame(before.get("1000n"), forecast.forecast().get(0).hours().get(0).condition());
+        assertEquals(before, preloaded.dictionary());
+    }
+}
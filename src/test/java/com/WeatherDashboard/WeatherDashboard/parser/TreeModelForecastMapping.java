@@ -0,0 +1,86 @@
+package com.WeatherDashboard.WeatherDashboard.parser;
+
+import com.WeatherDashboard.WeatherDashboard.dto.ForecastDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The Map-tree mapping WeatherService.getForecast used before the streaming parser,
+ * kept as the reference for ForecastParserTest's equality check and for the
+ * allocation comparison in WeatherServiceBenchmark.
+ */
+public final class TreeModelForecastMapping {
+
+    private TreeModelForecastMapping() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static ForecastDTO map(Map<String, Object> response) {
+        Map<String, Object> location = (Map<String, Object>) response.get("location");
+        Map<String, Object> forecast = (Map<String, Object>) response.get("forecast");
+        List<Map<String, Object>> forecastDays = (List<Map<String, Object>>) forecast.get("forecastday");
+
+        List<ForecastDTO.ForecastDay> forecastDayList = forecastDays.stream()
+            .map(day -> {
+                Map<String, Object> dayData = (Map<String, Object>) day.get("day");
+                Map<String, Object> condition = (Map<String, Object>) dayData.get("condition");
+                List<Map<String, Object>> hours = (List<Map<String, Object>>) day.get("hour");
+
+                List<ForecastDTO.HourForecast> hourList = hours.stream()
+                    .map(hour -> {
+                        Map<String, Object> hourCondition = (Map<String, Object>) hour.get("condition");
+                        return new ForecastDTO.HourForecast(
+                            (String) hour.get("time"),
+                            ((Number) hour.get("temp_f")).doubleValue(),
+                            ((Number) hour.get("temp_c")).doubleValue(),
+                            new ForecastDTO.Condition(
+                                (String) hourCondition.get("text"),
+                                (String) hourCondition.get("icon"),
+                                ((Number) hourCondition.get("code")).intValue()
+                            ),
+                            ((Number) hour.get("wind_mph")).doubleValue(),
+                            ((Number) hour.get("humidity")).intValue(),
+                            ((Number) hour.get("chance_of_rain")).intValue(),
+                            ((Number) hour.get("chance_of_snow")).intValue()
+                        );
+                    })
+                    .collect(Collectors.toList());
+
+                return new ForecastDTO.ForecastDay(
+                    (String) day.get("date"),
+                    new ForecastDTO.DayForecast(
+                        ((Number) dayData.get("maxtemp_f")).doubleValue(),
+                        ((Number) dayData.get("maxtemp_c")).doubleValue(),
+                        ((Number) dayData.get("mintemp_f")).doubleValue(),
+                        ((Number) dayData.get("mintemp_c")).doubleValue(),
+                        ((Number) dayData.get("avgtemp_f")).doubleValue(),
+                        ((Number) dayData.get("avgtemp_c")).doubleValue(),
+                        ((Number) dayData.get("maxwind_mph")).doubleValue(),
+                        ((Number) dayData.get("totalprecip_in")).doubleValue(),
+                        ((Number) dayData.get("totalprecip_mm")).doubleValue(),
+                        ((Number) dayData.get("avghumidity")).intValue(),
+                        new ForecastDTO.Condition(
+                            (String) condition.get("text"),
+                            (String) condition.get("icon"),
+                            ((Number) condition.get("code")).intValue()
+                        ),
+                        ((Number) dayData.get("daily_chance_of_rain")).intValue(),
+                        ((Number) dayData.get("daily_chance_of_snow")).intValue()
+                    ),
+                    hourList
+                );
+            })
+            .collect(Collectors.toList());
+
+        return new ForecastDTO(
+            (String) location.get("name"),
+            (String) location.get("region"),
+            (String) location.get("country"),
+            ((Number) location.get("lat")).doubleValue(),
+            ((Number) location.get("lon")).doubleValue(),
+            forecastDayList
+        );
+    }
+}
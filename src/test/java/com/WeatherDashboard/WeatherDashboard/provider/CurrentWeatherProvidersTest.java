@@ -0,0 +1,144 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamException;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentWeatherProvidersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CurrentWeatherProviders router(CurrentWeatherProvider... providers) {
+        return new CurrentWeatherProviders(List.of(providers), List.of("primary", "secondary"),
+                true, 50, 10, 1000, 0.1, meterRegistry);
+    }
+
+    private static WeatherDTO weather(String city) {
+        return new WeatherDTO(city, "Region", "Country", 68.0, 20.0, "Sunny", 50, 5.0, 40.0, -75.0);
+    }
+
+    @Test
+    void testFetch_HedgesToSecondaryWhenPrimaryIsSlow() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        FakeProvider primary = new FakeProvider("primary", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return weather("From Primary");
+        });
+        FakeProvider secondary = new FakeProvider("secondary", () -> weather("From Secondary"));
+
+        // Act
+        WeatherDTO result = router(secondary, primary).fetch("London");
+        release.countDown();
+
+        // Assert
+        assertEquals("From Secondary", result.city());
+        assertEquals(1, meterRegistry.get("weather.provider.hedges").tag("outcome", "won").counter().count());
+    }
+
+    @Test
+    void testFetch_FailsOverWhenPrimaryErrors() {
+        // Arrange
+        FakeProvider primary = new FakeProvider("primary", () -> {
+            throw new UpstreamException("primary returned HTTP 503", 503);
+        });
+        FakeProvider secondary = new FakeProvider("secondary", () -> weather("From Secondary"));
+
+        // Act
+        WeatherDTO result = router(primary, secondary).fetch("London");
+
+        // Assert
+        assertEquals("From Secondary", result.city());
+        assertEquals(1, meterRegistry.get("weather.provider.failovers").tag("from", "primary").counter().count());
+    }
+
+    @Test
+    void testFetch_DoesNotFailOverWhenQueryIsRejected() {
+        // Arrange
+        FakeProvider primary = new FakeProvider("primary", () -> {
+            throw new UpstreamException("primary returned HTTP 400", 400);
+        });
+        FakeProvider secondary = new FakeProvider("secondary", () -> weather("From Secondary"));
+
+        // Act
+        UpstreamException thrown = assertThrows(UpstreamException.class, () -> router(primary, secondary).fetch("Nowhere"));
+
+        // Assert
+        assertEquals(400, thrown.getStatusCode());
+        assertEquals(0, secondary.calls.get());
+    }
+
+    @Test
+    void testFetch_ThrowsPrimaryErrorWhenAllProvidersFail() {
+        // Arrange
+        FakeProvider primary = new FakeProvider("primary", () -> {
+            throw new UpstreamException("primary returned HTTP 500", 500);
+        });
+        FakeProvider secondary = new FakeProvider("secondary", () -> {
+            throw new UpstreamException("secondary returned HTTP 502", 502);
+        });
+
+        // Act
+        UpstreamException thrown = assertThrows(UpstreamException.class, () -> router(primary, secondary).fetch("London"));
+
+        // Assert
+        assertEquals(500, thrown.getStatusCode());
+        assertEquals(1, thrown.getSuppressed().length);
+    }
+
+    @Test
+    void testFetch_SkipsUnconfiguredProviders() {
+        // Arrange
+        FakeProvider primary = new FakeProvider("primary", () -> weather("From Primary"));
+        primary.configured = false;
+        FakeProvider secondary = new FakeProvider("secondary", () -> weather("From Secondary"));
+
+        // Act
+        WeatherDTO result = router(primary, secondary).fetch("London");
+
+        // Assert
+        assertEquals("From Secondary", result.city());
+        assertEquals(0, primary.calls.get());
+    }
+
+    private static class FakeProvider implements CurrentWeatherProvider {
+        private final String name;
+        private final Supplier<WeatherDTO> answer;
+        private final AtomicInteger calls = new AtomicInteger();
+        private boolean configured = true;
+
+        FakeProvider(String name, Supplier<WeatherDTO> answer) {
+            this.name = name;
+            this.answer = answer;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isConfigured() {
+            return configured;
+        }
+
+        @Override
+        public WeatherDTO fetch(String query) {
+            calls.incrementAndGet();
+            return answer.get();
+        }
+    }
+}
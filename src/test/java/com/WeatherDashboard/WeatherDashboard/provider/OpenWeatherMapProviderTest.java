@@ -0,0 +1,47 @@
+package com.WeatherDashboard.WeatherDashboard.provider;
+
+import com.WeatherDashboard.WeatherDashboard.client.UpstreamClient;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OpenWeatherMapProviderTest {
+
+    @Mock
+    private UpstreamClient upstreamClient;
+
+    @Test
+    void testFetch_MapsResponseLikeWeatherApi() {
+        // Arrange
+        OpenWeatherMapProvider provider = new OpenWeatherMapProvider(upstreamClient, "test-key");
+        when(upstreamClient.getJson(any(), contains("lat=39.96&lon=-75.2"))).thenReturn(Map.of(
+                "name", "Philadelphia",
+                "coord", Map.of("lat", 39.96, "lon", -75.2),
+                "main", Map.of("temp", 50.0, "humidity", 40),
+                "wind", Map.of("speed", 7.5),
+                "sys", Map.of("country", "US"),
+                "weather", List.of(Map.of("description", "light rain"))));
+
+        // Act
+        WeatherDTO result = provider.fetch("39.96,-75.2");
+
+        // Assert
+        assertEquals("Philadelphia", result.city());
+        assertNull(result.region());
+        assertEquals("United States", result.country());
+        assertEquals(10.0, result.tempC());
+        assertEquals("Light rain", result.condition());
+        assertEquals(7.5, result.windMph());
+    }
+}
@@ -0,0 +1,33 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationsTest {
+
+    @Test
+    void testMigrate_BaselinedDatabaseGetsEveryTableAfterV1() {
+        // Arrange: saved_cities as ddl-auto=update created it, before Flyway
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE saved_cities (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "city_name VARCHAR(255) NOT NULL UNIQUE, latitude DOUBLE PRECISION NOT NULL, "
+                + "longitude DOUBLE PRECISION NOT NULL)");
+
+        // Act: same settings as application.properties
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        // Assert
+        Integer tables = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.tables "
+                + "WHERE table_name IN ('region_cells', 'weather_observations')", Integer.class);
+        assertEquals(2, tables);
+    }
+}
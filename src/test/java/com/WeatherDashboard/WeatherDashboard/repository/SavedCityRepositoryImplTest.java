@@ -0,0 +1,72 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SavedCityRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SavedCityRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        // Fresh in-memory database per test, built by the real migrations
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new SavedCityRepositoryImpl(jdbcTemplate);
+    }
+
+    @Test
+    void testInsertIfAbsent_ReturnsSavedCityWithId() {
+        // Act
+        Optional<SavedCity> saved = repository.insertIfAbsent("Austin", 30.27, -97.74);
+
+        // Assert
+        assertTrue(saved.isPresent());
+        assertNotNull(saved.get().getId());
+        assertEquals("Austin", jdbcTemplate.queryForObject(
+                "SELECT city_name FROM saved_cities WHERE id = ?", String.class, saved.get().getId()));
+    }
+
+    @Test
+    void testInsertIfAbsent_RejectsNameDifferingOnlyInCase() {
+        // Arrange
+        repository.insertIfAbsent("New York", 40.71, -74.01);
+
+        // Act
+        Optional<SavedCity> duplicate = repository.insertIfAbsent("NEW YORK", 40.71, -74.01);
+
+        // Assert
+        assertTrue(duplicate.isEmpty());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM saved_cities", Integer.class));
+    }
+
+    @Test
+    void testInsertAllIfAbsent_SkipsTakenNamesAndSavesTheRest() {
+        // Arrange
+        repository.insertIfAbsent("Boston", 42.36, -71.06);
+
+        // Act
+        int inserted = repository.insertAllIfAbsent(List.of(
+                new SavedCity("Austin", 30.27, -97.74),
+                new SavedCity("BOSTON", 42.36, -71.06),
+                new SavedCity("Chicago", 41.88, -87.63)));
+
+        // Assert
+        assertEquals(2, inserted);
+        assertEquals(List.of("Austin", "Boston", "Chicago"), jdbcTemplate.queryForList(
+                "SELECT city_name FROM saved_cities ORDER BY city_name", String.class));
+    }
+}
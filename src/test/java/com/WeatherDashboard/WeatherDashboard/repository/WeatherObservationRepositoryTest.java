@@ -0,0 +1,91 @@
+package com.WeatherDashboard.WeatherDashboard.repository;
+
+import com.WeatherDashboard.WeatherDashboard.dto.HistoryBucketDTO;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherObservation;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherObservationRepositoryTest {
+
+    private WeatherObservationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Fresh in-memory database per test, with the app's schema
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        repository = new WeatherObservationRepository(new JdbcTemplate(dataSource));
+    }
+
+    private static WeatherObservation observation(String key, double tempF, int humidity, String at) {
+        return new WeatherObservation(key, "Austin", "Texas", "USA", 30.27, -97.74,
+                tempF, (tempF - 32) * 5 / 9, "Sunny", humidity, 5.0, Instant.parse(at));
+    }
+
+    @Test
+    void testFindHistory_AggregatesPerBucket() {
+        // Arrange
+        repository.insertBatch(List.of(
+                observation("30.27,-97.74", 70.0, 40, "2025-06-01T10:05:00Z"),
+                observation("30.27,-97.74", 74.0, 60, "2025-06-01T10:45:00Z"),
+                observation("30.27,-97.74", 80.0, 30, "2025-06-01T11:10:00Z"),
+                observation("42.36,-71.06", 50.0, 90, "2025-06-01T10:30:00Z")));
+
+        // Act
+        List<HistoryBucketDTO> history = repository.findHistory("30.27,-97.74",
+                Instant.parse("2025-06-01T00:00:00Z"), Instant.parse("2025-06-02T00:00:00Z"), 3600);
+
+        // Assert
+        assertEquals(2, history.size());
+        HistoryBucketDTO first = history.get(0);
+        assertEquals(Instant.parse("2025-06-01T10:00:00Z"), first.bucketStart());
+        assertEquals(2, first.samples());
+        assertEquals(70.0, first.tempFMin());
+        assertEquals(74.0, first.tempFMax());
+        assertEquals(72.0, first.tempFAvg(), 0.001);
+        assertEquals(50.0, first.humidityAvg(), 0.001);
+        assertEquals(Instant.parse("2025-06-01T11:00:00Z"), history.get(1).bucketStart());
+        assertEquals(1, history.get(1).samples());
+    }
+
+    @Test
+    void testFindHistory_ExcludesObservationsOutsideRange() {
+        // Arrange
+        repository.insertBatch(List.of(
+                observation("30.27,-97.74", 70.0, 40, "2025-05-31T23:59:00Z"),
+                observation("30.27,-97.74", 72.0, 40, "2025-06-01T00:00:00Z")));
+
+        // Act
+        List<HistoryBucketDTO> history = repository.findHistory("30.27,-97.74",
+                Instant.parse("2025-06-01T00:00:00Z"), Instant.parse("2025-06-01T01:00:00Z"), 3600);
+
+        // Assert
+        assertEquals(1, history.size());
+        assertEquals(72.0, history.get(0).tempFMax());
+    }
+
+    @Test
+    void testFindHistory_ByCityNameKey() {
+        // Arrange
+        String key = "llanfairpwllgwyngyllgogerychwyrndrobwllllantysiliogogogoch";
+        repository.insertBatch(List.of(observation(key, 55.0, 80, "2025-06-01T10:05:00Z")));
+
+        // Act
+        List<HistoryBucketDTO> history = repository.findHistory(key,
+                Instant.parse("2025-06-01T00:00:00Z"), Instant.parse("2025-06-02T00:00:00Z"), 3600);
+
+        // Assert
+        assertEquals(1, history.size());
+        assertEquals(55.0, history.get(0).tempFMax());
+    }
+}
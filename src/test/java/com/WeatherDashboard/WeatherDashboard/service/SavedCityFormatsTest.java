@@ -0,0 +1,89 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SavedCityFormatsTest {
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<SavedCityFormats.Row> all(Iterator<SavedCityFormats.Row> rows) {
+        List<SavedCityFormats.Row> list = new ArrayList<>();
+        rows.forEachRemaining(list::add);
+        return list;
+    }
+
+    @Test
+    void testReadCsv_HeaderOrderQuotesAndBadRows() {
+        // Arrange
+        String csv = """
+                lat,lon,name,notes
+                38.9072,-77.0369,"Washington, D.C.",capital
+
+                30.27,-97.74,Austin,
+                91,0,Nowhere,
+                abc,0,Broken,
+                """;
+
+        // Act
+        List<SavedCityFormats.Row> rows = all(SavedCityFormats.readCsv(input(csv)));
+
+        // Assert
+        assertEquals(4, rows.size());
+        assertEquals("Washington, D.C.", rows.get(0).cityName());
+        assertEquals(-77.0369, rows.get(0).lon());
+        assertEquals("Austin", rows.get(1).cityName());
+        assertEquals(4, rows.get(1).line());
+        assertNotNull(rows.get(2).error());
+        assertEquals("lat and lon must be numbers", rows.get(3).error());
+    }
+
+    @Test
+    void testReadNdjson_ReportsBadLinesAndContinues() {
+        // Arrange
+        String ndjson = """
+                {"cityName":"Austin","lat":30.27,"lon":-97.74}
+                {not json
+                {"name":"Boston","latitude":"42.36","longitude":"-71.06"}
+                {"lat":1,"lon":2}
+                """;
+
+        // Act
+        List<SavedCityFormats.Row> rows = all(SavedCityFormats.readNdjson(input(ndjson), new ObjectMapper()));
+
+        // Assert
+        assertEquals(4, rows.size());
+        assertEquals("Austin", rows.get(0).cityName());
+        assertEquals("not valid JSON", rows.get(1).error());
+        assertEquals(42.36, rows.get(2).lat());
+        assertEquals("cityName is required", rows.get(3).error());
+    }
+
+    @Test
+    void testToCsvLine_RoundTripsThroughReader() {
+        // Arrange
+        SavedCitySummary city = new SavedCitySummary(7L, "Say \"Hi\", Town", 10.5, -20.25);
+
+        // Act
+        String csv = SavedCityFormats.CSV_HEADER + "\n" + SavedCityFormats.toCsvLine(city) + "\n";
+        List<SavedCityFormats.Row> rows = all(SavedCityFormats.readCsv(input(csv)));
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertEquals("Say \"Hi\", Town", rows.get(0).cityName());
+        assertEquals(10.5, rows.get(0).lat());
+        assertEquals(-20.25, rows.get(0).lon());
+    }
+}
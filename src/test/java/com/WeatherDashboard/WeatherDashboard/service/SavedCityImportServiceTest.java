@@ -0,0 +1,84 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityImportResult;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import com.WeatherDashboard.WeatherDashboard.entity.SavedCity;
+import com.WeatherDashboard.WeatherDashboard.repository.SavedCityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SavedCityImportServiceTest {
+
+    @Mock
+    private SavedCityRepository savedCityRepository;
+
+    private SavedCityImportService savedCityImportService;
+
+    @BeforeEach
+    void setUp() {
+        savedCityImportService = new SavedCityImportService(savedCityRepository, 2);
+    }
+
+    private static SavedCityFormats.Row row(long line, String name) {
+        return new SavedCityFormats.Row(line, name, 1.0, 2.0, null);
+    }
+
+    @Test
+    void testImportCities_OneInsertPerChunkAndSkipsDuplicates() {
+        // Arrange
+        List<List<String>> inserted = new ArrayList<>();
+        when(savedCityRepository.insertAllIfAbsent(anyList())).thenAnswer(inv -> {
+            List<SavedCity> cities = inv.getArgument(0);
+            inserted.add(cities.stream().map(SavedCity::getCityName).toList());
+            // Boston is already saved
+            return (int) cities.stream().filter(c -> !c.getCityName().equals("Boston")).count();
+        });
+        List<SavedCityFormats.Row> rows = List.of(
+                row(1, "Austin"),
+                row(2, "Boston"),
+                row(3, "AUSTIN"),
+                new SavedCityFormats.Row(4, null, 0, 0, "cityName is required"),
+                row(5, "Chicago"));
+
+        // Act
+        SavedCityImportResult result = savedCityImportService.importCities(rows.iterator());
+
+        // Assert
+        assertEquals(2, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(1, result.invalid());
+        assertEquals(List.of("line 4: cityName is required"), result.errors());
+        assertEquals(List.of(List.of("Austin", "Boston"), List.of("Chicago")), inserted);
+    }
+
+    @Test
+    void testExportCities_PagesByKeyset() {
+        // Arrange
+        SavedCitySummary a = new SavedCitySummary(3L, "A", 0, 0);
+        SavedCitySummary b = new SavedCitySummary(8L, "B", 0, 0);
+        SavedCitySummary c = new SavedCitySummary(9L, "C", 0, 0);
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(a, b));
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(8L), any(Limit.class))).thenReturn(List.of(c));
+        List<String> exported = new ArrayList<>();
+
+        // Act
+        savedCityImportService.exportCities(city -> exported.add(city.cityName()));
+
+        // Assert
+        assertEquals(List.of("A", "B", "C"), exported);
+    }
+}
@@ -0,0 +1,224 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.cache.MutableClock;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCityPage;
+import com.WeatherDashboard.WeatherDashboard.dto.SavedCitySummary;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import com.WeatherDashboard.WeatherDashboard.repository.SavedCityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SavedCityServiceTest {
+
+    @Mock
+    private SavedCityRepository savedCityRepository;
+
+    @Mock
+    private WeatherService weatherService;
+
+    private SavedCityService savedCityService;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        savedCityService = new SavedCityService(savedCityRepository, weatherService, 4, Duration.ofMillis(500), 2, 10,
+                100, Duration.ofMinutes(30), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        savedCityService.shutdown();
+    }
+
+    private static SavedCitySummary city(long id, String name, double lat, double lon) {
+        return new SavedCitySummary(id, name, lat, lon);
+    }
+
+    private List<Map<String, Object>> firstPage() {
+        return savedCityService.getSavedCitiesWithWeather(Long.MIN_VALUE, 10).cities();
+    }
+
+    private static WeatherDTO weather(String name, double lat, double lon) {
+        return new WeatherDTO(name, "Region", "Country", 70.0, 21.1, "Sunny", 50, 5.0, lat, lon);
+    }
+
+    @Test
+    void testGetSavedCitiesWithWeather_KeepsRepositoryOrder() {
+        // Arrange
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(
+                city(1, "Austin", 30.27, -97.74),
+                city(2, "Boston", 42.36, -71.06),
+                city(3, "Chicago", 41.88, -87.63)));
+        when(weatherService.getWeather("30.27,-97.74")).thenAnswer(inv -> {
+            Thread.sleep(100);
+            return weather("Austin", 30.27, -97.74);
+        });
+        when(weatherService.getWeather("42.36,-71.06")).thenReturn(weather("Boston", 42.36, -71.06));
+        when(weatherService.getWeather("41.88,-87.63")).thenThrow(new RuntimeException("API Error"));
+
+        // Act
+        List<Map<String, Object>> result = firstPage();
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("Austin", result.get(0).get("name"));
+        assertEquals("Boston", result.get(1).get("name"));
+        assertEquals("Chicago", result.get(2).get("name"));
+        assertEquals("Failed to fetch weather: API Error", result.get(2).get("error"));
+    }
+
+    @Test
+    void testGetSavedCitiesWithWeather_SlowCityGetsErrorEntry() {
+        // Arrange
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(
+                city(1, "Austin", 30.27, -97.74),
+                city(2, "Boston", 42.36, -71.06)));
+        when(weatherService.getWeather("30.27,-97.74")).thenAnswer(inv -> {
+            Thread.sleep(5000);
+            return weather("Austin", 30.27, -97.74);
+        });
+        when(weatherService.getWeather("42.36,-71.06")).thenReturn(weather("Boston", 42.36, -71.06));
+
+        // Act
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> result = firstPage();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Assert
+        assertTrue(elapsed < 2000, "request should finish at the deadline, took " + elapsed + "ms");
+        assertTrue(((String) result.get(0).get("error")).contains("timed out"));
+        assertEquals(1L, result.get(0).get("id"));
+        assertEquals(70.0, result.get(1).get("temp_f"));
+    }
+
+    @Test
+    void testGetSavedCitiesWithWeather_ServesSnapshotAfterFirstFetch() {
+        // Arrange
+        SavedCitySummary austin = city(1, "Austin", 30.27, -97.74);
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(austin));
+        when(weatherService.getWeather("30.27,-97.74")).thenReturn(weather("Austin", 30.27, -97.74));
+
+        // Act
+        firstPage();
+        List<Map<String, Object>> result = firstPage();
+
+        // Assert
+        assertEquals("Austin", result.get(0).get("name"));
+        assertNotNull(result.get(0).get("as_of"));
+        verify(weatherService, times(1)).getWeather("30.27,-97.74");
+    }
+
+    @Test
+    void testGetSavedCitiesWithWeather_FetchesLiveOnceSnapshotExpires() {
+        // Arrange
+        SavedCitySummary austin = city(1, "Austin", 30.27, -97.74);
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(austin));
+        when(weatherService.getWeather("30.27,-97.74")).thenReturn(weather("Austin", 30.27, -97.74));
+        firstPage();
+
+        // Act
+        clock.advance(Duration.ofMinutes(31));
+        List<Map<String, Object>> result = firstPage();
+
+        // Assert
+        assertNull(result.get(0).get("as_of"));
+        verify(weatherService, times(2)).getWeather("30.27,-97.74");
+    }
+
+    @Test
+    void testDeleteCity_DropsItsSnapshot() {
+        // Arrange
+        SavedCitySummary austin = city(1, "Austin", 30.27, -97.74);
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(austin));
+        when(weatherService.getWeather("30.27,-97.74")).thenReturn(weather("Austin", 30.27, -97.74));
+        when(savedCityRepository.existsById(1L)).thenReturn(true);
+        firstPage();
+
+        // Act
+        savedCityService.deleteCity(1L);
+        firstPage();
+
+        // Assert
+        verify(weatherService, times(2)).getWeather("30.27,-97.74");
+    }
+
+    @Test
+    void testRefreshSnapshots_FailureKeepsPreviousSnapshot() {
+        // Arrange
+        SavedCitySummary austin = city(1, "Austin", 30.27, -97.74);
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(austin));
+        when(weatherService.getWeather("30.27,-97.74"))
+                .thenReturn(weather("Austin", 30.27, -97.74))
+                .thenThrow(new RuntimeException("API Error"));
+        savedCityService.refreshSnapshots(List.of(austin));
+
+        // Act
+        savedCityService.refreshSnapshots(List.of(austin));
+        List<Map<String, Object>> result = firstPage();
+
+        // Assert
+        assertFalse(result.get(0).containsKey("error"));
+        assertEquals(70.0, result.get(0).get("temp_f"));
+    }
+
+    @Test
+    void testGetSavedCitiesWithWeather_ReturnsCursorWhenMoreRowsExist() {
+        // Arrange
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(5L), any(Limit.class))).thenReturn(List.of(
+                city(6, "Austin", 30.27, -97.74),
+                city(9, "Boston", 42.36, -71.06),
+                city(12, "Chicago", 41.88, -87.63)));
+        when(weatherService.getWeather("30.27,-97.74")).thenReturn(weather("Austin", 30.27, -97.74));
+        when(weatherService.getWeather("42.36,-71.06")).thenReturn(weather("Boston", 42.36, -71.06));
+
+        // Act
+        SavedCityPage page = savedCityService.getSavedCitiesWithWeather(5L, 2);
+
+        // Assert
+        assertEquals(2, page.cities().size());
+        assertEquals(9L, page.nextCursor());
+        verify(savedCityRepository).findByIdGreaterThanOrderByIdAsc(5L, Limit.of(3));
+    }
+
+    @Test
+    void testStreamSavedCitiesWithWeather_WalksKeysetPages() {
+        // Arrange
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(
+                city(1, "Austin", 30.27, -97.74),
+                city(2, "Boston", 42.36, -71.06)));
+        when(savedCityRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(List.of(
+                city(3, "Chicago", 41.88, -87.63)));
+        when(weatherService.getWeather("30.27,-97.74")).thenReturn(weather("Austin", 30.27, -97.74));
+        when(weatherService.getWeather("42.36,-71.06")).thenReturn(weather("Boston", 42.36, -71.06));
+        when(weatherService.getWeather("41.88,-87.63")).thenReturn(weather("Chicago", 41.88, -87.63));
+        List<Object> streamed = new ArrayList<>();
+
+        // Act
+        savedCityService.streamSavedCitiesWithWeather(city -> streamed.add(city.get("name")));
+
+        // Assert
+        assertEquals(List.of("Austin", "Boston", "Chicago"), streamed);
+        verify(savedCityRepository, times(2)).findByIdGreaterThanOrderByIdAsc(any(Long.class), eq(Limit.of(2)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.dto.BatchWeatherResult;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherBatchServiceTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    private WeatherBatchService weatherBatchService;
+
+    @BeforeEach
+    void setUp() {
+        weatherBatchService = new WeatherBatchService(weatherService, 5, 4, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherBatchService.shutdown();
+    }
+
+    private static WeatherDTO weather(String name) {
+        return new WeatherDTO(name, "Region", "Country", 70.0, 21.1, "Sunny", 50, 5.0, 0, 0);
+    }
+
+    @Test
+    void testGetWeather_DeduplicatesAndKeepsRequestOrder() {
+        // Arrange
+        when(weatherService.getWeather("London")).thenReturn(weather("London"));
+        when(weatherService.getWeather("Paris")).thenThrow(new RuntimeException("API Error"));
+
+        // Act
+        List<BatchWeatherResult> results = weatherBatchService.getWeather(List.of("London", " london ", "Paris"));
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(BatchWeatherResult.OK, results.get(0).status());
+        assertEquals("London", results.get(0).weather().city());
+        assertEquals(BatchWeatherResult.ERROR, results.get(1).status());
+        assertEquals("API Error", results.get(1).error());
+        verify(weatherService, times(1)).getWeather("London");
+    }
+
+    @Test
+    void testStreamWeather_EmitsFastResultsBeforeSlowOnes() {
+        // Arrange
+        when(weatherService.getWeather("Austin")).thenAnswer(inv -> {
+            Thread.sleep(200);
+            return weather("Austin");
+        });
+        when(weatherService.getWeather("Boston")).thenReturn(weather("Boston"));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        weatherBatchService.streamWeather(List.of("Austin", "Boston"), result -> order.add(result.query()));
+
+        // Assert
+        assertEquals(List.of("Boston", "Austin"), order);
+    }
+
+    @Test
+    void testGetWeather_SlowLocationTimesOut() {
+        // Arrange
+        when(weatherService.getWeather("Austin")).thenAnswer(inv -> {
+            Thread.sleep(5000);
+            return weather("Austin");
+        });
+        when(weatherService.getWeather("Boston")).thenReturn(weather("Boston"));
+
+        // Act
+        long start = System.currentTimeMillis();
+        List<BatchWeatherResult> results = weatherBatchService.getWeather(List.of("Austin", "Boston"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Assert
+        assertTrue(elapsed < 2000, "batch should finish at the deadline, took " + elapsed + "ms");
+        assertEquals(BatchWeatherResult.TIMEOUT, results.get(0).status());
+        assertEquals(BatchWeatherResult.OK, results.get(1).status());
+    }
+
+    @Test
+    void testUniqueQueries_RejectsOversizedBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> weatherBatchService.uniqueQueries(List.of("a", "b", "c", "d", "e", "f")));
+        assertThrows(IllegalArgumentException.class, () -> weatherBatchService.uniqueQueries(List.of()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.WeatherDashboard.WeatherDashboard.service;
+
+import com.WeatherDashboard.WeatherDashboard.WeatherService;
+import com.WeatherDashboard.WeatherDashboard.dto.WeatherDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherUpdateHubTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    private WeatherUpdateHub weatherUpdateHub;
+
+    @BeforeEach
+    void setUp() {
+        weatherUpdateHub = new WeatherUpdateHub(weatherService, 100, 60_000, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        weatherUpdateHub.shutdown();
+    }
+
+    private static WeatherDTO weather(double tempF) {
+        return new WeatherDTO("London", "City of London, Greater London", "United Kingdom",
+                tempF, (tempF - 32) * 5 / 9, "Sunny", 50, 5.0, 51.52, -0.11);
+    }
+
+    private record Event(String name, Object data) {}
+
+    private static class RecordingListener implements WeatherUpdateHub.Listener {
+        final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(String event, Object data) {
+            events.add(new Event(event, data));
+        }
+
+        @Override
+        public void ping() {
+        }
+
+        Event next() throws InterruptedException {
+            Event event = events.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event, "expected an event");
+            return event;
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubscribe_SnapshotThenOnlyChangedFields() throws InterruptedException {
+        // Arrange
+        when(weatherService.getWeather("London")).thenReturn(weather(68.0), weather(68.0), weather(70.0));
+        RecordingListener listener = new RecordingListener();
+
+        // Act
+        weatherUpdateHub.subscribe(List.of("London"), listener);
+        Event first = listener.next();
+        Event second = listener.next();
+
+        // Assert
+        assertEquals(WeatherUpdateHub.SNAPSHOT_EVENT, first.name());
+        assertEquals(WeatherUpdateHub.DELTA_EVENT, second.name());
+        Map<String, Object> changes = (Map<String, Object>) ((Map<String, Object>) second.data()).get("changes");
+        assertEquals(Map.of("temp_f", 70.0, "temp_c", (70.0 - 32) * 5 / 9), changes);
+    }
+
+    @Test
+    void testSubscribe_SharesOneLoopPerLocation() throws InterruptedException {
+        // Arrange
+        when(weatherService.getWeather(anyString())).thenReturn(weather(68.0));
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+
+        // Act
+        weatherUpdateHub.subscribe(List.of("London"), first);
+        first.next();
+        weatherUpdateHub.subscribe(List.of(" london "), second);
+        Thread.sleep(250);
+
+        // Assert
+        assertEquals(WeatherUpdateHub.SNAPSHOT_EVENT, second.next().name(), "late subscriber gets the current value");
+        assertEquals(1, weatherUpdateHub.watchedLocationCount());
+        assertEquals(2, weatherUpdateHub.subscriberCount());
+        // One call per tick, not one per subscriber
+        verify(weatherService, atMost(5)).getWeather(anyString());
+    }
+
+    @Test
+    void testClose_StopsLoopWhenLastSubscriberLeaves() throws InterruptedException {
+        // Arrange
+        when(weatherService.getWeather(anyString())).thenReturn(weather(68.0));
+        RecordingListener listener = new RecordingListener();
+        WeatherUpdateHub.Subscription subscription = weatherUpdateHub.subscribe(List.of("London", "Paris"), listener);
+        listener.next();
+
+        // Act
+        subscription.close();
+
+        // Assert
+        assertEquals(0, weatherUpdateHub.watchedLocationCount());
+        assertEquals(0, weatherUpdateHub.subscriberCount());
+    }
+
+    @Test
+    void testSubscribe_FailingListenerIsDropped() throws InterruptedException {
+        // Arrange
+        when(weatherService.getWeather(anyString())).thenReturn(weather(68.0));
+        WeatherUpdateHub.Listener broken = new WeatherUpdateHub.Listener() {
+            @Override
+            public void send(String event, Object data) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void ping() {
+            }
+        };
+
+        // Act
+        weatherUpdateHub.subscribe(List.of("London"), broken);
+        Thread.sleep(300);
+
+        // Assert
+        assertEquals(0, weatherUpdateHub.watchedLocationCount());
+    }
+
+    @Test
+    void testSubscribe_RejectsTooManyLocations() {
+        assertThrows(IllegalArgumentException.class,
+                () -> weatherUpdateHub.subscribe(List.of("a", "b", "c", "d"), new RecordingListener()));
+        assertThrows(IllegalArgumentException.class,
+                () -> weatherUpdateHub.subscribe(List.of(" "), new RecordingListener()));
+    }
+}